@@ -0,0 +1,405 @@
+package ca.bcit.comp2522.code;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the age in years of many creatures up to date without recalculating it on every read.
+ * Creatures are bucketed by the day of year of their birth, and rollover() only recalculates the
+ * buckets whose birthdays fall between the previous date and the new one, so an age read is an
+ * array load. Ages follow Creature.getAgeYears() exactly, including its DAY_OF_YEAR comparison
+ * in leap years. This class is not thread-safe.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class AgeIndex
+{
+    private static final int DAYS_IN_LONGEST_YEAR = 366;
+    private static final int FIRST_DAY_OF_YEAR = 1;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INITIAL_BUCKET_CAPACITY = 4;
+
+    private final Map<Creature, Integer> handles;
+    private final int[][] buckets;
+    private final int[] bucketSizes;
+
+    private Creature[] creatures;
+    private int[] birthYears;
+    private int[] birthDaysOfYear;
+    private int[] ageYears;
+    private int size;
+
+    private int year;
+    private int dayOfYear;
+
+    /**
+     * Constructs an empty AgeIndex whose ages are as of today.
+     */
+    public AgeIndex()
+    {
+        this(Calendar.getInstance());
+    }
+
+    /**
+     * Constructs an empty AgeIndex whose ages are as of the specified date.
+     *
+     * @param today the date ages are calculated for (must not be null)
+     * @throws IllegalArgumentException if today is null
+     */
+    public AgeIndex(final Calendar today)
+    {
+        if (today == null)
+        {
+            throw new IllegalArgumentException("Today must not be null.");
+        }
+
+        this.handles = new IdentityHashMap<>();
+        this.buckets = new int[DAYS_IN_LONGEST_YEAR + 1][];
+        this.bucketSizes = new int[DAYS_IN_LONGEST_YEAR + 1];
+
+        this.creatures = new Creature[INITIAL_CAPACITY];
+        this.birthYears = new int[INITIAL_CAPACITY];
+        this.birthDaysOfYear = new int[INITIAL_CAPACITY];
+        this.ageYears = new int[INITIAL_CAPACITY];
+        this.size = 0;
+
+        this.year = today.get(Calendar.YEAR);
+        this.dayOfYear = today.get(Calendar.DAY_OF_YEAR);
+
+        for (int day = FIRST_DAY_OF_YEAR; day <= DAYS_IN_LONGEST_YEAR; day++)
+        {
+            buckets[day] = new int[INITIAL_BUCKET_CAPACITY];
+        }
+    }
+
+    /**
+     * Adds a creature to the index, or finds it if it was already added.
+     *
+     * @param creature the creature to index (must not be null)
+     * @return the creature's handle, for use with getAgeYears(int)
+     * @throws IllegalArgumentException if creature is null
+     */
+    public int add(final Creature creature)
+    {
+        final Integer existing;
+        final int handle;
+        final int birthDay;
+
+        if (creature == null)
+        {
+            throw new IllegalArgumentException("Creature must not be null.");
+        }
+
+        existing = handles.get(creature);
+
+        if (existing != null)
+        {
+            return existing;
+        }
+
+        if (size == creatures.length)
+        {
+            creatures = Arrays.copyOf(creatures, size * 2);
+            birthYears = Arrays.copyOf(birthYears, size * 2);
+            birthDaysOfYear = Arrays.copyOf(birthDaysOfYear, size * 2);
+            ageYears = Arrays.copyOf(ageYears, size * 2);
+        }
+
+        handle = size++;
+        birthDay = creature.getBirthDayOfYear();
+
+        creatures[handle] = creature;
+        birthYears[handle] = creature.getBirthYear();
+        birthDaysOfYear[handle] = birthDay;
+        ageYears[handle] = ageOn(year, dayOfYear, handle);
+
+        if (bucketSizes[birthDay] == buckets[birthDay].length)
+        {
+            buckets[birthDay] = Arrays.copyOf(buckets[birthDay], bucketSizes[birthDay] * 2);
+        }
+
+        buckets[birthDay][bucketSizes[birthDay]++] = handle;
+        handles.put(creature, handle);
+
+        return handle;
+    }
+
+    /**
+     * Returns the number of indexed creatures.
+     *
+     * @return the index size
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the age of the creature with the specified handle, as of the index's current date.
+     *
+     * @param handle the handle returned by add()
+     * @return the age in years
+     * @throws IllegalArgumentException if handle is not a valid handle
+     */
+    public int getAgeYears(final int handle)
+    {
+        validateHandle(handle);
+
+        return ageYears[handle];
+    }
+
+    /**
+     * Returns the age of the specified creature, as of the index's current date.
+     *
+     * @param creature an indexed creature
+     * @return the age in years
+     * @throws IllegalArgumentException if creature is not in the index
+     */
+    public int getAgeYears(final Creature creature)
+    {
+        final Integer handle;
+
+        handle = handles.get(creature);
+
+        if (handle == null)
+        {
+            throw new IllegalArgumentException("Creature is not indexed: " + creature);
+        }
+
+        return ageYears[handle];
+    }
+
+    /**
+     * Moves the index forward to the specified date, recalculating only the creatures whose
+     * birthday was passed since the previous date. Moving to the same date does nothing.
+     *
+     * @param today the new date (must not be null or before the current date)
+     * @throws IllegalArgumentException if today is null or before the index's current date
+     */
+    public void rollover(final Calendar today)
+    {
+        final int newYear;
+        final int newDayOfYear;
+
+        if (today == null)
+        {
+            throw new IllegalArgumentException("Today must not be null.");
+        }
+
+        newYear = today.get(Calendar.YEAR);
+        newDayOfYear = today.get(Calendar.DAY_OF_YEAR);
+
+        if (newYear < year || (newYear == year && newDayOfYear < dayOfYear))
+        {
+            throw new IllegalArgumentException("Cannot roll back from day " + dayOfYear + " of " + year +
+                    " to day " + newDayOfYear + " of " + newYear);
+        }
+
+        if (newYear == year)
+        {
+            recalculate(dayOfYear + 1, newDayOfYear, newYear, newDayOfYear);
+        }
+        else if (newYear == year + 1)
+        {
+            recalculate(dayOfYear + 1, DAYS_IN_LONGEST_YEAR, newYear, newDayOfYear);
+            recalculate(FIRST_DAY_OF_YEAR, newDayOfYear, newYear, newDayOfYear);
+        }
+        else
+        {
+            recalculate(FIRST_DAY_OF_YEAR, DAYS_IN_LONGEST_YEAR, newYear, newDayOfYear);
+        }
+
+        year = newYear;
+        dayOfYear = newDayOfYear;
+    }
+
+    /**
+     * Returns the creatures whose age went up on the index's current date.
+     * Only today's bucket is checked, plus on the first day of the year the bucket for day 366,
+     * whose creatures age up on January 1 after a year that is not a leap year.
+     * Creatures born on the current date are not included.
+     *
+     * @return the creatures that had a birthday today
+     */
+    public List<Creature> agingUpToday()
+    {
+        final List<Creature> agingUp;
+        final int yesterdayYear;
+        final int yesterdayDayOfYear;
+
+        agingUp = new ArrayList<>();
+
+        if (dayOfYear == FIRST_DAY_OF_YEAR)
+        {
+            yesterdayYear = year - 1;
+            yesterdayDayOfYear = Year.of(yesterdayYear).length();
+        }
+        else
+        {
+            yesterdayYear = year;
+            yesterdayDayOfYear = dayOfYear - 1;
+        }
+
+        addAgingUp(dayOfYear, yesterdayYear, yesterdayDayOfYear, agingUp);
+
+        if (dayOfYear == FIRST_DAY_OF_YEAR)
+        {
+            addAgingUp(DAYS_IN_LONGEST_YEAR, yesterdayYear, yesterdayDayOfYear, agingUp);
+        }
+
+        return agingUp;
+    }
+
+    /**
+     * Returns the oldest creatures by age in years, as of the index's current date.
+     * Creatures of equal age are returned in the order they were added.
+     *
+     * @param count the most creatures to return (must not be negative)
+     * @return up to count creatures, oldest first
+     * @throws IllegalArgumentException if count is negative
+     */
+    public List<Creature> oldest(final int count)
+    {
+        final PriorityQueue<Integer> youngestKept;
+        final List<Creature> oldest;
+
+        if (count < 0)
+        {
+            throw new IllegalArgumentException("Count must not be negative: " + count);
+        }
+
+        youngestKept = new PriorityQueue<>(Math.max(1, Math.min(count, size)), this::compareOldestFirstReversed);
+        oldest = new ArrayList<>();
+
+        for (int handle = 0; handle < size && count > 0; handle++)
+        {
+            if (youngestKept.size() < count)
+            {
+                youngestKept.add(handle);
+            }
+            else if (compareOldestFirstReversed(handle, youngestKept.peek()) > 0)
+            {
+                youngestKept.poll();
+                youngestKept.add(handle);
+            }
+        }
+
+        while (!youngestKept.isEmpty())
+        {
+            oldest.add(creatures[youngestKept.poll()]);
+        }
+
+        Collections.reverse(oldest);
+
+        return oldest;
+    }
+
+    /**
+     * Adds the creatures in one bucket that are older today than they were yesterday.
+     *
+     * @param day                the birth day of year of the bucket
+     * @param yesterdayYear      the calendar year of the day before the current date
+     * @param yesterdayDayOfYear the calendar day of year of the day before the current date
+     * @param agingUp            the list to add to
+     */
+    private void addAgingUp(final int day,
+                            final int yesterdayYear,
+                            final int yesterdayDayOfYear,
+                            final List<Creature> agingUp)
+    {
+        final int[] bucket;
+
+        bucket = buckets[day];
+
+        for (int i = 0; i < bucketSizes[day]; i++)
+        {
+            if (ageYears[bucket[i]] > ageOn(yesterdayYear, yesterdayDayOfYear, bucket[i]))
+            {
+                agingUp.add(creatures[bucket[i]]);
+            }
+        }
+    }
+
+    /**
+     * Recalculates the ages in the buckets for birth days first to last inclusive.
+     *
+     * @param first        the first birth day of year to recalculate
+     * @param last         the last birth day of year to recalculate
+     * @param newYear      the year to calculate ages for
+     * @param newDayOfYear the day of year to calculate ages for
+     */
+    private void recalculate(final int first,
+                             final int last,
+                             final int newYear,
+                             final int newDayOfYear)
+    {
+        for (int day = first; day <= last; day++)
+        {
+            final int[] bucket;
+
+            bucket = buckets[day];
+
+            for (int i = 0; i < bucketSizes[day]; i++)
+            {
+                ageYears[bucket[i]] = ageOn(newYear, newDayOfYear, bucket[i]);
+            }
+        }
+    }
+
+    /**
+     * Calculates a creature's age on the specified date with Creature's formula.
+     *
+     * @param onYear      the calendar year
+     * @param onDayOfYear the calendar day of year
+     * @param handle      the creature's handle
+     * @return the age in years
+     */
+    private int ageOn(final int onYear,
+                      final int onDayOfYear,
+                      final int handle)
+    {
+        return Creature.calculateAgeYears(onYear, onDayOfYear, birthYears[handle], birthDaysOfYear[handle]);
+    }
+
+    /**
+     * Orders handles youngest first, and among equal ages the later-added first,
+     * so the head of a queue is the first to drop when keeping the oldest.
+     *
+     * @param first  a handle
+     * @param second another handle
+     * @return a negative number if first is dropped before second, positive if after
+     */
+    private int compareOldestFirstReversed(final int first,
+                                           final int second)
+    {
+        if (ageYears[first] != ageYears[second])
+        {
+            return Integer.compare(ageYears[first], ageYears[second]);
+        }
+
+        return Integer.compare(second, first);
+    }
+
+    /**
+     * Validates that a handle was returned by add().
+     *
+     * @param handle the handle to validate
+     * @throws IllegalArgumentException if handle is out of range
+     */
+    private void validateHandle(final int handle)
+    {
+        if (handle < 0 || handle >= size)
+        {
+            throw new IllegalArgumentException("Handle out of range (0.." + (size - 1) + "): " + handle);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package ca.bcit.comp2522.code;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for breatheFire(), castSpell(), and berserk().
+ * Committed once per attack, whether it succeeded or failed. When the event is not
+ * enabled in the running recording, shouldCommit() is false and nothing is recorded.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+@Name(AttackEvent.NAME)
+@Label("Creature Attack")
+@Category({"Creatures", "Combat"})
+@Description("A Dragon, Elf, or Orc attacking another creature")
+@StackTrace(false)
+final class AttackEvent extends Event
+{
+    static final String NAME = "ca.bcit.comp2522.Attack";
+
+    @Label("Attacker")
+    String attacker;
+
+    @Label("Attacker Type")
+    String attackerType;
+
+    @Label("Attack")
+    String attack;
+
+    @Label("Target")
+    String target;
+
+    @Label("Damage")
+    int damage;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /**
+     * Records a successful attack if this event should be committed.
+     *
+     * @param attacker    the attacking creature
+     * @param attackName  the name of the attack method
+     * @param target      the creature attacked
+     * @param damageDealt the damage dealt to the target
+     */
+    void commitSuccess(final Creature attacker,
+                       final String attackName,
+                       final Creature target,
+                       final int damageDealt)
+    {
+        end();
+
+        if (shouldCommit())
+        {
+            fill(attacker, attackName, target);
+            damage = damageDealt;
+            succeeded = true;
+            commit();
+        }
+    }
+
+    /**
+     * Records a failed attack and the exception that stopped it.
+     *
+     * @param attacker   the attacking creature
+     * @param attackName the name of the attack method
+     * @param target     the creature attacked, or null if none was given
+     * @param failure    the exception about to be thrown
+     */
+    void commitFailure(final Creature attacker,
+                       final String attackName,
+                       final Creature target,
+                       final Exception failure)
+    {
+        end();
+
+        if (shouldCommit())
+        {
+            fill(attacker, attackName, target);
+            succeeded = false;
+            commit();
+        }
+
+        CombatFailureEvent.record(attacker, attackName, failure);
+    }
+
+    /**
+     * Copies the attack details into the event fields.
+     *
+     * @param attackerCreature the attacking creature
+     * @param attackName       the name of the attack method
+     * @param targetCreature   the creature attacked, or null if the attack had no target
+     */
+    private void fill(final Creature attackerCreature,
+                      final String attackName,
+                      final Creature targetCreature)
+    {
+        attacker = attackerCreature.getName();
+        attackerType = attackerCreature.getClass().getSimpleName();
+        attack = attackName;
+        target = targetCreature == null ? null : targetCreature.getName();
+    }
+}
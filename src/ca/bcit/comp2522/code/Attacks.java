@@ -0,0 +1,64 @@
+package ca.bcit.comp2522.code;
+
+/**
+ * Makes any creature use its own attack: breatheFire() for a Dragon, castSpell() for an Elf,
+ * and berserk() for an Orc. Used wherever attacks are driven by creature rather than by type,
+ * such as simulations that pick attackers at random.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public final class Attacks
+{
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private Attacks()
+    {
+    }
+
+    /**
+     * Makes the attacker use its attack on the target.
+     * An attack that fails for lack of fire power, mana, or rage deals no damage and is not an error.
+     *
+     * @param attacker the attacking creature (must not be null)
+     * @param target   the target creature (must not be null)
+     * @return true if the attack was made, false if the attacker lacked the resource or has no attack
+     * @throws IllegalArgumentException if attacker or target is null
+     */
+    public static boolean attack(final Creature attacker,
+                                 final Creature target)
+    {
+        if (attacker == null)
+        {
+            throw new IllegalArgumentException("Attacker must not be null.");
+        }
+
+        try
+        {
+            if (attacker instanceof Dragon)
+            {
+                ((Dragon)attacker).breatheFire(target);
+            }
+            else if (attacker instanceof Elf)
+            {
+                ((Elf)attacker).castSpell(target);
+            }
+            else if (attacker instanceof Orc)
+            {
+                ((Orc)attacker).berserk(target);
+            }
+            else
+            {
+                return false;
+            }
+
+            return true;
+        }
+        catch (final LowFirePowerException | LowManaException | LowRageException e)
+        {
+            return false;
+        }
+    }
+}
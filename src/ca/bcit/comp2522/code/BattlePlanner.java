@@ -0,0 +1,379 @@
+package ca.bcit.comp2522.code;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Chooses a creature's best attack with a parallel Monte Carlo search over a BattleState.
+ * Each worker thread plays random games from a private copy of the state, forking with
+ * mark() and undoing with rollback(), until the time budget runs out. The candidate with
+ * the best average score for the creature's team is chosen.
+ * The workers are daemon threads, so a planner that is never closed does not keep the JVM running.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class BattlePlanner implements AutoCloseable
+{
+    /** Returned when the creature has no attack available. */
+    public static final int PASS = -1;
+
+    private static final int DEFAULT_PLAYOUT_DEPTH = 200;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final String WORKER_NAME = "battle-planner";
+
+    private final ExecutorService workers;
+    private final int threads;
+    private final int playoutDepth;
+    private final long seed;
+
+    /**
+     * Constructs a BattlePlanner using one worker per available processor.
+     */
+    public BattlePlanner()
+    {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_PLAYOUT_DEPTH, System.nanoTime());
+    }
+
+    /**
+     * Constructs a BattlePlanner with the specified settings.
+     *
+     * @param threads      the number of worker threads (must be positive)
+     * @param playoutDepth the maximum number of moves in each random game (must be positive)
+     * @param seed         the seed for the workers' random number generators
+     * @throws IllegalArgumentException if threads or playoutDepth is not positive
+     */
+    public BattlePlanner(final int threads,
+                         final int playoutDepth,
+                         final long seed)
+    {
+        if (threads <= 0)
+        {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+
+        if (playoutDepth <= 0)
+        {
+            throw new IllegalArgumentException("Playout depth must be positive: " + playoutDepth);
+        }
+
+        this.workers = Executors.newFixedThreadPool(threads, BattlePlanner::newWorker);
+        this.threads = threads;
+        this.playoutDepth = playoutDepth;
+        this.seed = seed;
+    }
+
+    /**
+     * Chooses the best target for the specified creature within the time budget.
+     * The state is not modified.
+     *
+     * @param state        the current battle
+     * @param actor        the index of the creature choosing an action
+     * @param budgetMillis the time allowed for the search in milliseconds (must be positive)
+     * @return the index of the target to attack, or PASS if the creature cannot attack
+     * @throws IllegalArgumentException if state is null, actor is out of range, or budgetMillis is not positive
+     */
+    public int bestTarget(final BattleState state,
+                          final int actor,
+                          final long budgetMillis)
+    {
+        final int[] candidates;
+        final long deadline;
+        final List<Future<long[]>> results;
+        final long[] totals;
+        final long[] visits;
+
+        if (state == null)
+        {
+            throw new IllegalArgumentException("State must not be null.");
+        }
+
+        if (actor < 0 || actor >= state.size())
+        {
+            throw new IllegalArgumentException("Actor out of range (0.." + (state.size() - 1) + "): " + actor);
+        }
+
+        if (budgetMillis <= 0L)
+        {
+            throw new IllegalArgumentException("Budget must be positive: " + budgetMillis);
+        }
+
+        candidates = legalTargets(state, actor);
+
+        if (candidates.length <= 1)
+        {
+            return candidates.length == 0 ? PASS : candidates[0];
+        }
+
+        deadline = System.nanoTime() + budgetMillis * NANOS_PER_MILLI;
+        results = new ArrayList<>();
+        totals = new long[candidates.length];
+        visits = new long[candidates.length];
+
+        for (int t = 0; t < threads; t++)
+        {
+            final BattleState copy;
+            final SplittableRandom random;
+
+            copy = state.copy();
+            random = new SplittableRandom(seed + t);
+
+            results.add(workers.submit(() -> search(copy, actor, candidates, deadline, random)));
+        }
+
+        for (final Future<long[]> result : results)
+        {
+            final long[] workerResult;
+
+            workerResult = await(result);
+
+            for (int c = 0; c < candidates.length; c++)
+            {
+                totals[c] += workerResult[c * 2];
+                visits[c] += workerResult[c * 2 + 1];
+            }
+        }
+
+        return candidates[bestCandidate(totals, visits)];
+    }
+
+    /**
+     * Stops the worker threads. The planner cannot be used afterwards.
+     */
+    public void shutdown()
+    {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Stops the worker threads, the same as shutdown(), so a planner can be used in try-with-resources.
+     */
+    @Override
+    public void close()
+    {
+        shutdown();
+    }
+
+    /**
+     * Creates a daemon worker thread for the pool.
+     *
+     * @param task the pool's worker loop
+     * @return the new thread
+     */
+    private static Thread newWorker(final Runnable task)
+    {
+        final Thread worker;
+
+        worker = new Thread(task, WORKER_NAME);
+        worker.setDaemon(true);
+
+        return worker;
+    }
+
+    /**
+     * Runs random games from each candidate in turn until the deadline.
+     *
+     * @param state      the worker's private copy of the battle
+     * @param actor      the creature choosing an action
+     * @param candidates the targets the actor may attack
+     * @param deadline   the System.nanoTime() value at which to stop
+     * @param random     the worker's random number generator
+     * @return pairs of total score and visit count for each candidate
+     */
+    private long[] search(final BattleState state,
+                          final int actor,
+                          final int[] candidates,
+                          final long deadline,
+                          final SplittableRandom random)
+    {
+        final long[] result;
+        final int team;
+        final int root;
+        int c;
+
+        result = new long[candidates.length * 2];
+        team = state.getTeam(actor);
+        root = state.mark();
+        c = 0;
+
+        do
+        {
+            state.attack(actor, candidates[c]);
+            playout(state, actor, random);
+
+            result[c * 2] += state.score(team);
+            result[c * 2 + 1]++;
+
+            state.rollback(root);
+            c = (c + 1) % candidates.length;
+        }
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted());
+
+        return result;
+    }
+
+    /**
+     * Plays random moves, with creatures taking turns in index order after the actor.
+     *
+     * @param state  the battle to play on
+     * @param actor  the creature that just moved
+     * @param random the random number generator
+     */
+    private void playout(final BattleState state,
+                         final int actor,
+                         final SplittableRandom random)
+    {
+        final int size;
+        int current;
+        int passes;
+
+        size = state.size();
+        current = actor;
+        passes = 0;
+
+        for (int move = 0; move < playoutDepth && passes < size; move++)
+        {
+            final int target;
+
+            current = (current + 1) % size;
+            target = randomTarget(state, current, random);
+
+            if (target == PASS)
+            {
+                passes++;
+            }
+            else
+            {
+                state.attack(current, target);
+                passes = 0;
+            }
+        }
+    }
+
+    /**
+     * Picks a random legal target without allocating.
+     *
+     * @param state    the battle
+     * @param attacker the creature choosing a target
+     * @param random   the random number generator
+     * @return a random target index, or PASS if there is none
+     */
+    private static int randomTarget(final BattleState state,
+                                    final int attacker,
+                                    final SplittableRandom random)
+    {
+        int chosen;
+        int seen;
+
+        chosen = PASS;
+        seen = 0;
+
+        for (int i = 0; i < state.size(); i++)
+        {
+            if (state.canAttack(attacker, i))
+            {
+                seen++;
+
+                if (random.nextInt(seen) == 0)
+                {
+                    chosen = i;
+                }
+            }
+        }
+
+        return chosen;
+    }
+
+    /**
+     * Returns every target the actor can currently attack.
+     *
+     * @param state the battle
+     * @param actor the creature choosing a target
+     * @return the legal target indexes
+     */
+    private static int[] legalTargets(final BattleState state,
+                                      final int actor)
+    {
+        final int[] targets;
+        int count;
+
+        targets = new int[state.size()];
+        count = 0;
+
+        for (int i = 0; i < state.size(); i++)
+        {
+            if (state.canAttack(actor, i))
+            {
+                targets[count++] = i;
+            }
+        }
+
+        return Arrays.copyOf(targets, count);
+    }
+
+    /**
+     * Returns the candidate with the highest average score.
+     *
+     * @param totals the total score for each candidate
+     * @param visits the number of games played for each candidate
+     * @return the index of the best candidate
+     */
+    private static int bestCandidate(final long[] totals,
+                                     final long[] visits)
+    {
+        int best;
+        double bestAverage;
+
+        best = 0;
+        bestAverage = Double.NEGATIVE_INFINITY;
+
+        for (int c = 0; c < totals.length; c++)
+        {
+            if (visits[c] > 0)
+            {
+                final double average;
+
+                average = (double)totals[c] / visits[c];
+
+                if (average > bestAverage)
+                {
+                    bestAverage = average;
+                    best = c;
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Waits for a worker's result.
+     *
+     * @param result the worker's future
+     * @return the worker's totals and visit counts
+     * @throws IllegalStateException if the worker failed or the wait was interrupted
+     */
+    private static long[] await(final Future<long[]> result)
+    {
+        try
+        {
+            return result.get();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while planning.", e);
+        }
+        catch (final ExecutionException e)
+        {
+            throw new IllegalStateException("Planning worker failed.", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package ca.bcit.comp2522.code;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact, forkable copy of a battle used for look-ahead search.
+ * Health and resources are held in primitive arrays and every change is recorded in an
+ * undo log, so a search can mark() a position, play moves, and rollback() in time
+ * proportional to the number of changes rather than the size of the battle.
+ * Attacks follow the same rules as breatheFire(), castSpell(), and berserk().
+ * Unlike the live creatures, a dead creature in a BattleState cannot attack.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class BattleState
+{
+    private static final int HEALTH_FIELD = 0;
+    private static final int RESOURCE_FIELD = 1;
+    private static final int FIELD_BITS = 1;
+    private static final int ENTRY_SIZE = 2;
+    private static final int INITIAL_LOG_CAPACITY = 64;
+
+    private final CreatureType[] types;
+    private final int[] teams;
+    private final int[] health;
+    private final int[] resource;
+    private int[] undoLog;
+    private int logSize;
+
+    /**
+     * Constructs a BattleState from the current state of the specified creatures.
+     * Every creature starts on its own team.
+     *
+     * @param creatures the creatures taking part (must not be null or contain null)
+     * @throws IllegalArgumentException if creatures is null or contains null
+     */
+    public BattleState(final List<? extends Creature> creatures)
+    {
+        final int count;
+
+        if (creatures == null)
+        {
+            throw new IllegalArgumentException("Creatures must not be null.");
+        }
+
+        count = creatures.size();
+
+        this.types = new CreatureType[count];
+        this.teams = new int[count];
+        this.health = new int[count];
+        this.resource = new int[count];
+        this.undoLog = new int[INITIAL_LOG_CAPACITY];
+        this.logSize = 0;
+
+        for (int i = 0; i < count; i++)
+        {
+            final Creature creature;
+
+            creature = creatures.get(i);
+
+            types[i] = CreatureType.of(creature);
+            teams[i] = i;
+            health[i] = creature.getHealth();
+            resource[i] = CreatureType.resourceOf(creature);
+        }
+    }
+
+    /**
+     * Constructs an independent copy of another BattleState with an empty undo log.
+     *
+     * @param other the state to copy
+     */
+    private BattleState(final BattleState other)
+    {
+        this.types = other.types;
+        this.teams = other.teams.clone();
+        this.health = other.health.clone();
+        this.resource = other.resource.clone();
+        this.undoLog = new int[INITIAL_LOG_CAPACITY];
+        this.logSize = 0;
+    }
+
+    /**
+     * Returns an independent copy of this state, for example one per search thread.
+     *
+     * @return a copy with the same health, resources, and teams
+     */
+    public BattleState copy()
+    {
+        return new BattleState(this);
+    }
+
+    /**
+     * Returns the number of creatures in the battle.
+     *
+     * @return the creature count
+     */
+    public int size()
+    {
+        return types.length;
+    }
+
+    /**
+     * Returns the type of the creature at the specified index.
+     *
+     * @param index the creature index
+     * @return the creature type
+     */
+    public CreatureType getType(final int index)
+    {
+        return types[index];
+    }
+
+    /**
+     * Returns the health of the creature at the specified index.
+     *
+     * @param index the creature index
+     * @return the current health
+     */
+    public int getHealth(final int index)
+    {
+        return health[index];
+    }
+
+    /**
+     * Returns the firepower, mana, or rage of the creature at the specified index.
+     *
+     * @param index the creature index
+     * @return the current resource
+     */
+    public int getResource(final int index)
+    {
+        return resource[index];
+    }
+
+    /**
+     * Returns the team of the creature at the specified index.
+     *
+     * @param index the creature index
+     * @return the team number
+     */
+    public int getTeam(final int index)
+    {
+        return teams[index];
+    }
+
+    /**
+     * Places the creature at the specified index on a team.
+     * Creatures on the same team are allies when the battle is scored.
+     *
+     * @param index the creature index
+     * @param team  the team number
+     */
+    public void setTeam(final int index,
+                       final int team)
+    {
+        teams[index] = team;
+    }
+
+    /**
+     * Checks if the creature at the specified index is alive.
+     *
+     * @param index the creature index
+     * @return true if health is greater than zero, false otherwise
+     */
+    public boolean isAlive(final int index)
+    {
+        return health[index] > Creature.DEAD_HEALTH;
+    }
+
+    /**
+     * Checks if the attacker can attack the target right now.
+     *
+     * @param attacker the attacking creature index
+     * @param target   the target creature index
+     * @return true if the attacker is alive, has enough resource, and the target is an alive enemy
+     */
+    public boolean canAttack(final int attacker,
+                             final int target)
+    {
+        return attacker != target &&
+                teams[attacker] != teams[target] &&
+                isAlive(attacker) &&
+                isAlive(target) &&
+                CombatRules.canAttack(types[attacker], resource[attacker]);
+    }
+
+    /**
+     * Applies an attack, spending the attacker's resource and damaging the target.
+     *
+     * @param attacker the attacking creature index
+     * @param target   the target creature index
+     * @throws IllegalStateException if canAttack(attacker, target) is false
+     */
+    public void attack(final int attacker,
+                       final int target)
+    {
+        final CreatureType type;
+        final int resourceAfter;
+
+        if (!canAttack(attacker, target))
+        {
+            throw new IllegalStateException("Creature " + attacker + " cannot attack creature " + target);
+        }
+
+        type = types[attacker];
+        resourceAfter = CombatRules.resourceAfterAttack(type, resource[attacker]);
+
+        setResource(attacker, resourceAfter);
+        setHealth(target, CombatRules.healthAfterDamage(health[target], CombatRules.attackDamage(type, resourceAfter)));
+    }
+
+    /**
+     * Returns the total health of the team's creatures minus the total health of everyone else.
+     *
+     * @param team the team to score for
+     * @return the team's health advantage
+     */
+    public int score(final int team)
+    {
+        int total;
+
+        total = 0;
+
+        for (int i = 0; i < health.length; i++)
+        {
+            if (teams[i] == team)
+            {
+                total += health[i];
+            }
+            else
+            {
+                total -= health[i];
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Returns a marker for the current position that can later be passed to rollback().
+     *
+     * @return the current undo log position
+     */
+    public int mark()
+    {
+        return logSize;
+    }
+
+    /**
+     * Undoes every change made since the specified mark, newest first.
+     *
+     * @param mark a value previously returned by mark()
+     * @throws IllegalArgumentException if mark is not a valid earlier position, such as an odd value inside an undo entry
+     */
+    public void rollback(final int mark)
+    {
+        if (mark < 0 || mark > logSize || mark % ENTRY_SIZE != 0)
+        {
+            throw new IllegalArgumentException("Invalid mark (0.." + logSize + "): " + mark);
+        }
+
+        while (logSize > mark)
+        {
+            final int slot;
+            final int oldValue;
+            final int index;
+
+            logSize -= ENTRY_SIZE;
+            slot = undoLog[logSize];
+            oldValue = undoLog[logSize + 1];
+            index = slot >>> FIELD_BITS;
+
+            if ((slot & RESOURCE_FIELD) == RESOURCE_FIELD)
+            {
+                resource[index] = oldValue;
+            }
+            else
+            {
+                health[index] = oldValue;
+            }
+        }
+    }
+
+    /**
+     * Sets a creature's health, recording the old value in the undo log.
+     *
+     * @param index the creature index
+     * @param value the new health
+     */
+    private void setHealth(final int index,
+                           final int value)
+    {
+        log(index, HEALTH_FIELD, health[index]);
+        health[index] = value;
+    }
+
+    /**
+     * Sets a creature's resource, recording the old value in the undo log.
+     *
+     * @param index the creature index
+     * @param value the new resource
+     */
+    private void setResource(final int index,
+                             final int value)
+    {
+        log(index, RESOURCE_FIELD, resource[index]);
+        resource[index] = value;
+    }
+
+    /**
+     * Appends an entry to the undo log, growing it when full.
+     *
+     * @param index    the creature index
+     * @param field    HEALTH_FIELD or RESOURCE_FIELD
+     * @param oldValue the value being replaced
+     */
+    private void log(final int index,
+                     final int field,
+                     final int oldValue)
+    {
+        if (logSize + ENTRY_SIZE > undoLog.length)
+        {
+            undoLog = Arrays.copyOf(undoLog, undoLog.length * 2);
+        }
+
+        undoLog[logSize] = (index << FIELD_BITS) | field;
+        undoLog[logSize + 1] = oldValue;
+        logSize += ENTRY_SIZE;
+    }
+}
@@ -0,0 +1,62 @@
+package ca.bcit.comp2522.code;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for exceptions thrown by combat operations,
+ * such as LowFirePowerException, LowManaException, LowRageException,
+ * DamageException, HealingException, and the IllegalArgumentException thrown for a null target.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+@Name(CombatFailureEvent.NAME)
+@Label("Combat Failure")
+@Category({"Creatures", "Combat"})
+@Description("An exception thrown by a combat operation")
+final class CombatFailureEvent extends Event
+{
+    static final String NAME = "ca.bcit.comp2522.CombatFailure";
+
+    @Label("Creature")
+    String creature;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Exception")
+    String exception;
+
+    @Label("Message")
+    String message;
+
+    /**
+     * Records a combat failure if the event is enabled.
+     *
+     * @param failed    the creature whose operation failed
+     * @param operation the name of the failed method
+     * @param failure   the exception about to be thrown
+     */
+    static void record(final Creature failed,
+                       final String operation,
+                       final Exception failure)
+    {
+        final CombatFailureEvent event;
+
+        event = new CombatFailureEvent();
+
+        if (event.shouldCommit())
+        {
+            event.creature = failed.getName();
+            event.operation = operation;
+            event.exception = failure.getClass().getSimpleName();
+            event.message = failure.getMessage();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package ca.bcit.comp2522.code;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarizes the creature combat events in a Java Flight Recorder recording.
+ * Prints the creatures that attacked most often and the failure rate of each attack.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class CombatRecordingAnalyzer
+{
+    private static final int TOP_ATTACKERS = 10;
+    private static final int PERCENT = 100;
+
+    private final Map<String, Integer> attacksByAttacker;
+    private final Map<String, Integer> attemptsByAttack;
+    private final Map<String, Integer> failuresByAttack;
+    private final Map<String, Integer> failuresByException;
+    private int healthChanges;
+    private int creaturesCreated;
+
+    /**
+     * Constructs an empty CombatRecordingAnalyzer.
+     */
+    public CombatRecordingAnalyzer()
+    {
+        this.attacksByAttacker = new TreeMap<>();
+        this.attemptsByAttack = new TreeMap<>();
+        this.failuresByAttack = new TreeMap<>();
+        this.failuresByException = new TreeMap<>();
+        this.healthChanges = 0;
+        this.creaturesCreated = 0;
+    }
+
+    /**
+     * Program entry point.
+     * Reads the recording named on the command line and prints a summary.
+     *
+     * @param args the path of the .jfr recording to analyze
+     * @throws IOException if the recording cannot be read
+     */
+    public static void main(final String[] args) throws IOException
+    {
+        final CombatRecordingAnalyzer analyzer;
+
+        if (args.length != 1)
+        {
+            System.out.println("Usage: java " + CombatRecordingAnalyzer.class.getName() + " <recording.jfr>");
+            return;
+        }
+
+        analyzer = new CombatRecordingAnalyzer();
+        analyzer.read(Paths.get(args[0]));
+
+        System.out.print(analyzer.summary());
+    }
+
+    /**
+     * Adds every combat event in a recording to the summary.
+     *
+     * @param recording the path of the .jfr file
+     * @throws IOException if the recording cannot be read
+     */
+    public void read(final Path recording) throws IOException
+    {
+        try (RecordingFile file = new RecordingFile(recording))
+        {
+            while (file.hasMoreEvents())
+            {
+                add(file.readEvent());
+            }
+        }
+    }
+
+    /**
+     * Adds one event to the summary. Events that are not combat events are ignored.
+     *
+     * @param event the recorded event
+     */
+    public void add(final RecordedEvent event)
+    {
+        final String name;
+
+        name = event.getEventType().getName();
+
+        if (AttackEvent.NAME.equals(name))
+        {
+            final String attack;
+
+            attack = event.getString("attack");
+
+            increment(attacksByAttacker, event.getString("attacker"));
+            increment(attemptsByAttack, attack);
+
+            if (!event.getBoolean("succeeded"))
+            {
+                increment(failuresByAttack, attack);
+            }
+        }
+        else if (CombatFailureEvent.NAME.equals(name))
+        {
+            increment(failuresByException, event.getString("exception"));
+        }
+        else if (HealthChangeEvent.NAME.equals(name))
+        {
+            healthChanges++;
+        }
+        else if (CreatureCreatedEvent.NAME.equals(name))
+        {
+            creaturesCreated++;
+        }
+    }
+
+    /**
+     * Returns a printable summary of the events added so far.
+     *
+     * @return the summary text
+     */
+    public String summary()
+    {
+        final StringBuilder out;
+        final List<Map.Entry<String, Integer>> attackers;
+
+        out = new StringBuilder();
+        attackers = new ArrayList<>(attacksByAttacker.entrySet());
+        attackers.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+
+        out.append("=== Hottest Attackers ===\n");
+
+        for (int i = 0; i < attackers.size() && i < TOP_ATTACKERS; i++)
+        {
+            out.append(String.format("%-20s %d attacks%n", attackers.get(i).getKey(), attackers.get(i).getValue()));
+        }
+
+        out.append("\n=== Attack Failure Rates ===\n");
+
+        for (final Map.Entry<String, Integer> attempts : attemptsByAttack.entrySet())
+        {
+            final int failures;
+
+            failures = failuresByAttack.getOrDefault(attempts.getKey(), 0);
+
+            out.append(String.format("%-12s %d/%d failed (%.1f%%)%n",
+                    attempts.getKey(),
+                    failures,
+                    attempts.getValue(),
+                    (double)failures * PERCENT / attempts.getValue()));
+        }
+
+        out.append("\n=== Failures by Exception ===\n");
+
+        for (final Map.Entry<String, Integer> failures : failuresByException.entrySet())
+        {
+            out.append(String.format("%-24s %d%n", failures.getKey(), failures.getValue()));
+        }
+
+        out.append(String.format("%nHealth changes: %d%nCreatures created: %d%n", healthChanges, creaturesCreated));
+
+        return out.toString();
+    }
+
+    /**
+     * Adds one to the count for a key.
+     *
+     * @param counts the map of counts
+     * @param key    the key to count
+     */
+    private static void increment(final Map<String, Integer> counts,
+                                  final String key)
+    {
+        counts.merge(key, 1, Integer::sum);
+    }
+}
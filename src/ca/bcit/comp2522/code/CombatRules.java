@@ -0,0 +1,175 @@
+package ca.bcit.comp2522.code;
+
+/**
+ * The combat rules of Dragon, Elf, and Orc expressed over primitive health and resource values.
+ * Used by state representations that do not hold Creature objects, so they stay in step
+ * with breatheFire(), castSpell(), berserk(), takeDamage(), and heal().
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+final class CombatRules
+{
+    static final int NO_RESOURCE = 0;
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private CombatRules()
+    {
+    }
+
+    /**
+     * Checks whether a creature with the specified resource has enough to attack.
+     *
+     * @param type     the attacker's type
+     * @param resource the attacker's current resource
+     * @return true if the attack would succeed, false if it would throw a Low*Exception
+     */
+    static boolean canAttack(final CreatureType type,
+                             final int resource)
+    {
+        switch (type)
+        {
+            case DRAGON:
+                return resource >= Dragon.FIRE_POWER_COST;
+            case ELF:
+                return resource >= Elf.SPELL_MANA_COST;
+            case ORC:
+                return resource >= Orc.MIN_RAGE_TO_BERSERK;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns the attacker's resource after a successful attack.
+     *
+     * @param type     the attacker's type
+     * @param resource the attacker's resource before the attack
+     * @return the resource after the attack
+     */
+    static int resourceAfterAttack(final CreatureType type,
+                                   final int resource)
+    {
+        switch (type)
+        {
+            case DRAGON:
+                return resource - Dragon.FIRE_POWER_COST;
+            case ELF:
+                return resource - Elf.SPELL_MANA_COST;
+            case ORC:
+                return Math.min(resource + Orc.RAGE_INCREASE, Orc.MAX_RAGE);
+            default:
+                return resource;
+        }
+    }
+
+    /**
+     * Returns the damage dealt by an attack, given the attacker's resource after the attack.
+     *
+     * @param type          the attacker's type
+     * @param resourceAfter the attacker's resource after the attack
+     * @return the damage dealt to the target
+     */
+    static int attackDamage(final CreatureType type,
+                            final int resourceAfter)
+    {
+        switch (type)
+        {
+            case DRAGON:
+                return Dragon.FIRE_DAMAGE;
+            case ELF:
+                return Elf.SPELL_DAMAGE;
+            case ORC:
+                if (resourceAfter > Orc.DOUBLE_DAMAGE_RAGE_THRESHOLD)
+                {
+                    return Orc.DOUBLE_BERSERK_DAMAGE;
+                }
+                return Orc.BASE_BERSERK_DAMAGE;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Returns the largest resource value a creature of the specified type can hold.
+     *
+     * @param type the creature type
+     * @return the maximum resource
+     */
+    static int maxResource(final CreatureType type)
+    {
+        switch (type)
+        {
+            case DRAGON:
+                return Dragon.MAX_FIRE_POWER;
+            case ELF:
+                return Elf.MAX_MANA;
+            case ORC:
+                return Orc.MAX_RAGE;
+            default:
+                return NO_RESOURCE;
+        }
+    }
+
+    /**
+     * Returns health after taking damage, clamped the same way as Creature.takeDamage().
+     *
+     * @param health the health before the damage
+     * @param damage the non-negative damage amount
+     * @return the health after the damage
+     */
+    static int healthAfterDamage(final int health,
+                                 final int damage)
+    {
+        return Math.max(health - damage, Creature.DEAD_HEALTH);
+    }
+
+    /**
+     * Returns health after healing, clamped the same way as Creature.heal().
+     * The amount is capped at MAX_HEALTH before it is added, so a very large amount cannot overflow.
+     *
+     * @param health     the health before healing
+     * @param healAmount the non-negative heal amount
+     * @return the health after healing
+     */
+    static int healthAfterHeal(final int health,
+                               final int healAmount)
+    {
+        return Math.min(health + Math.min(healAmount, Creature.MAX_HEALTH), Creature.MAX_HEALTH);
+    }
+
+    /**
+     * Checks whether a creature of the specified type has a restore operation,
+     * as Dragon.restoreFirePower() and Elf.restoreMana() do.
+     *
+     * @param type the creature's type
+     * @return true for a Dragon or an Elf, false otherwise
+     */
+    static boolean canRestore(final CreatureType type)
+    {
+        return type == CreatureType.DRAGON || type == CreatureType.ELF;
+    }
+
+    /**
+     * Returns the resource after restoring, capped at the type's maximum.
+     * The amount is capped at the maximum before it is added, so a very large amount cannot overflow.
+     *
+     * @param type     the creature's type
+     * @param resource the resource before restoring
+     * @param amount   the non-negative amount to restore
+     * @return the resource after restoring
+     */
+    static int resourceAfterRestore(final CreatureType type,
+                                    final int resource,
+                                    final int amount)
+    {
+        final int max;
+
+        max = maxResource(type);
+
+        return Math.min(resource + Math.min(amount, max), max);
+    }
+}
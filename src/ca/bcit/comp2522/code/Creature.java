@@ -15,14 +15,19 @@ import java.util.Date;
 public class Creature
 {
     private static final int MIN_HEALTH = 1;
-    private static final int MAX_HEALTH = 100;
-    private static final int DEAD_HEALTH = 0;
+    static final int MAX_HEALTH = 100;
+    static final int DEAD_HEALTH = 0;
     private static final int MIN_DAMAGE = 0;
 
     private final String name;
     private final Date dateOfBirth;
+    private final int birthYear;
+    private final int birthDayOfYear;
     private static final int MIN_AGE_YEAR = 0;
     private int health;
+    private CreatureChangeListener changeListener;
+    private World world;
+    private int worldIndex;
 
     /**
      * Constructs a Creature with the specified attributes.
@@ -37,6 +42,27 @@ public class Creature
                     final Date dateOfBirth,
                     final int health)
     {
+        this(name, dateOfBirth, health, true);
+    }
+
+    /**
+     * Constructs a Creature with the specified attributes, optionally leaving the creation event
+     * to the subclass. Dragon, Elf, and Orc pass false and record the event at the end of their
+     * own constructors, once their resource has also been validated.
+     *
+     * @param name          the creature's name (must not be null or blank)
+     * @param dateOfBirth   the creature's date of birth (must not be null or in the future)
+     * @param health        the creature's initial health (must be between DEAD_HEALTH and MAX_HEALTH inclusive)
+     * @param recordCreated true to record the creation event here, false if the subclass records it
+     * @throws IllegalArgumentException if any parameter is invalid
+     */
+    Creature(final String name,
+             final Date dateOfBirth,
+             final int health,
+             final boolean recordCreated)
+    {
+        final Calendar birth;
+
         validateName(name);
         validateDateOfBirth(dateOfBirth);
         validateHealth(health);
@@ -44,6 +70,17 @@ public class Creature
         this.name = name;
         this.dateOfBirth = new Date(dateOfBirth.getTime());
         this.health = health;
+
+        birth = Calendar.getInstance();
+        birth.setTime(dateOfBirth);
+
+        this.birthYear = birth.get(Calendar.YEAR);
+        this.birthDayOfYear = birth.get(Calendar.DAY_OF_YEAR);
+
+        if (recordCreated)
+        {
+            CreatureCreatedEvent.record(this);
+        }
     }
 
     /**
@@ -96,17 +133,37 @@ public class Creature
      */
     public void takeDamage(final int damage)
     {
+        final HealthChangeEvent event;
+        final int healthBefore;
+
+        event = new HealthChangeEvent();
+        event.begin();
+
         if (damage < MIN_DAMAGE)
         {
-            throw new DamageException("Damage cannot be negative: " + damage);
+            final DamageException exception;
+
+            exception = new DamageException("Damage cannot be negative: " + damage);
+            CombatFailureEvent.record(this, "takeDamage", exception);
+
+            throw exception;
         }
 
+        healthBefore = health;
         health -= damage;
 
         if (health < DEAD_HEALTH)
         {
             health = DEAD_HEALTH;
         }
+
+        event.commitChange(this, HealthChangeEvent.DAMAGE, damage, healthBefore, health);
+        fireChange(CreatureChange.Kind.HEALTH_CHANGED, healthBefore, health);
+
+        if (healthBefore > DEAD_HEALTH && health == DEAD_HEALTH)
+        {
+            fireChange(CreatureChange.Kind.DIED, healthBefore, health);
+        }
     }
 
     /**
@@ -118,39 +175,146 @@ public class Creature
      */
     public void heal(final int healAmount)
     {
+        final HealthChangeEvent event;
+        final int healthBefore;
+
+        event = new HealthChangeEvent();
+        event.begin();
+
         if (healAmount < 0)
         {
-            throw new HealingException("Healing cannot be negative: " + healAmount);
+            final HealingException exception;
+
+            exception = new HealingException("Healing cannot be negative: " + healAmount);
+            CombatFailureEvent.record(this, "heal", exception);
+
+            throw exception;
         }
 
+        healthBefore = health;
         health += healAmount;
 
         if (health > MAX_HEALTH)
         {
             health = MAX_HEALTH;
         }
+
+        event.commitChange(this, HealthChangeEvent.HEAL, healAmount, healthBefore, health);
+        fireChange(CreatureChange.Kind.HEALTH_CHANGED, healthBefore, health);
+    }
+
+    /**
+     * Sets the listener told about every change to this creature's health or resource.
+     *
+     * @param listener the listener, or null to stop reporting changes
+     */
+    public final void setChangeListener(final CreatureChangeListener listener)
+    {
+        this.changeListener = listener;
+    }
+
+    /**
+     * Sets health to a stored value without recording an event or reporting a change.
+     * Used by CreatureType.restore() to rebuild a stored creature, including a dead one.
+     *
+     * @param storedHealth the stored health (must be between DEAD_HEALTH and MAX_HEALTH inclusive)
+     * @throws IllegalArgumentException if storedHealth is out of range
+     */
+    final void setStoredHealth(final int storedHealth)
+    {
+        if (storedHealth < DEAD_HEALTH || storedHealth > MAX_HEALTH)
+        {
+            throw new IllegalArgumentException("Health out of range (" + DEAD_HEALTH + ".." + MAX_HEALTH + "): " + storedHealth);
+        }
+
+        health = storedHealth;
+    }
+
+    /**
+     * Records that this creature belongs to a World, which is then told about every change
+     * so that publish() copies only the pages holding changed creatures.
+     *
+     * @param joined the World the creature was added to
+     * @param index  the creature's index in that World
+     * @throws IllegalArgumentException if the creature already belongs to a World
+     */
+    final void joinWorld(final World joined,
+                         final int index)
+    {
+        if (world != null)
+        {
+            throw new IllegalArgumentException("Creature already belongs to a World: " + name);
+        }
+
+        world = joined;
+        worldIndex = index;
+    }
+
+    /**
+     * Reports a change to the creature's World and change listener, if there are any
+     * and the value actually changed.
+     *
+     * @param kind     the kind of change
+     * @param oldValue the value before the change
+     * @param newValue the value after the change
+     */
+    protected final void fireChange(final CreatureChange.Kind kind,
+                                    final int oldValue,
+                                    final int newValue)
+    {
+        final CreatureChangeListener listener;
+
+        if (oldValue == newValue)
+        {
+            return;
+        }
+
+        if (world != null)
+        {
+            world.markChanged(worldIndex);
+        }
+
+        listener = changeListener;
+
+        if (listener != null)
+        {
+            listener.creatureChanged(new CreatureChange(this, kind, oldValue, newValue));
+        }
     }
 
     /**
      * Calculates and returns the creature's age in years based on its date of birth.
-     * The age is calculated by comparing the birthdate to the current date.
+     * The age is calculated by comparing the birth year and day of year to the current date.
      *
      * @return the creature's age in years (MIN_AGE_YEAR or greater)
      */
     public final int getAgeYears()
     {
-        final Calendar today;
-        final Calendar birth;
-        final int years;
+        final Today today;
 
-        today = Calendar.getInstance();
-        birth = Calendar.getInstance();
+        today = Today.current();
 
-        birth.setTime(dateOfBirth);
+        return calculateAgeYears(today.getYear(), today.getDayOfYear(), birthYear, birthDayOfYear);
+    }
 
-        years = calculateAgeYears(today, birth);
+    /**
+     * Returns the calendar year of the creature's birth.
+     *
+     * @return the birth year
+     */
+    final int getBirthYear()
+    {
+        return birthYear;
+    }
 
-        return years;
+    /**
+     * Returns the calendar day of year of the creature's birth, as Calendar.DAY_OF_YEAR.
+     *
+     * @return the birth day of year (1 to 366)
+     */
+    final int getBirthDayOfYear()
+    {
+        return birthDayOfYear;
     }
 
     /**
@@ -161,35 +325,49 @@ public class Creature
      */
     public String getDetails()
     {
-        return String.format("Class=%s, Name=%s, DOB=%s, AgeYears=%d, Health=%d",
-                getClass().getSimpleName(),
-                name,
-                dateOfBirth,
-                getAgeYears(),
-                health);
+        return "Class=" + getClass().getSimpleName() +
+                ", Name=" + name +
+                ", DOB=" + dateOfBirth +
+                ", AgeYears=" + getAgeYears() +
+                ", Health=" + health;
     }
 
     /**
      * Calculates the age in years between a birthdate and today's date.
      * Accounts for whether the birthday has occurred yet this year.
+     * Public so that indexes and test drivers can check their ages against the same rule.
      *
      * @param today the current date calendar
      * @param birth the birthdate calendar
      * @return the age in years (MIN_AGE_YEAR or greater)
      */
-    private static int calculateAgeYears(final Calendar today,
-                                         final Calendar birth)
+    public static int calculateAgeYears(final Calendar today,
+                                 final Calendar birth)
     {
-        final int yearDiff;
-        final int todayDayOfYear;
-        final int birthDayOfYear;
-        int years;
+        return calculateAgeYears(today.get(Calendar.YEAR),
+                today.get(Calendar.DAY_OF_YEAR),
+                birth.get(Calendar.YEAR),
+                birth.get(Calendar.DAY_OF_YEAR));
+    }
 
-        yearDiff = today.get(Calendar.YEAR) - birth.get(Calendar.YEAR);
-        todayDayOfYear = today.get(Calendar.DAY_OF_YEAR);
-        birthDayOfYear = birth.get(Calendar.DAY_OF_YEAR);
+    /**
+     * Calculates the age in years from calendar years and days of year.
+     * The birthday counts as reached once today's DAY_OF_YEAR is at least the birth DAY_OF_YEAR.
+     *
+     * @param todayYear      the current calendar year
+     * @param todayDayOfYear the current calendar day of year
+     * @param birthYear      the calendar year of birth
+     * @param birthDayOfYear the calendar day of year of birth
+     * @return the age in years (MIN_AGE_YEAR or greater)
+     */
+    static int calculateAgeYears(final int todayYear,
+                                 final int todayDayOfYear,
+                                 final int birthYear,
+                                 final int birthDayOfYear)
+    {
+        int years;
 
-        years = yearDiff;
+        years = todayYear - birthYear;
 
         if (todayDayOfYear < birthDayOfYear)
         {
@@ -224,18 +402,14 @@ public class Creature
      * @param dateOfBirth the date of birth to validate
      * @throws IllegalArgumentException if dateOfBirth is null or in the future
      */
-    private static void validateDateOfBirth(final Date dateOfBirth)
+    static void validateDateOfBirth(final Date dateOfBirth)
     {
-        final Date now;
-
         if (dateOfBirth == null)
         {
             throw new IllegalArgumentException("Date of birth must not be null.");
         }
 
-        now = new Date();
-
-        if (dateOfBirth.after(now))
+        if (dateOfBirth.getTime() > System.currentTimeMillis())
         {
             throw new IllegalArgumentException("Date of birth must not be in the future: " + dateOfBirth);
         }
@@ -247,7 +421,7 @@ public class Creature
      * @param health the health value to validate
      * @throws IllegalArgumentException if health is not between MIN_HEALTH and MAX_HEALTH inclusive
      */
-    private static void validateHealth(final int health)
+    static void validateHealth(final int health)
     {
         if (health < MIN_HEALTH || health > MAX_HEALTH)
         {
@@ -0,0 +1,108 @@
+package ca.bcit.comp2522.code;
+
+/**
+ * A change to a creature's health or resource, as published by a CreatureChangePublisher.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public final class CreatureChange
+{
+    /**
+     * The kinds of change a creature reports.
+     */
+    public enum Kind
+    {
+        /** Health changed through takeDamage() or heal(). */
+        HEALTH_CHANGED,
+
+        /** Health reached zero in takeDamage(). */
+        DIED,
+
+        /** Firepower or mana decreased because of breatheFire() or castSpell(). */
+        RESOURCE_SPENT,
+
+        /** Rage increased because of berserk(). */
+        RESOURCE_GAINED,
+
+        /** Firepower or mana increased through restoreFirePower() or restoreMana(). */
+        RESOURCE_RESTORED
+    }
+
+    private final Creature creature;
+    private final Kind kind;
+    private final int oldValue;
+    private final int newValue;
+
+    /**
+     * Constructs a CreatureChange.
+     *
+     * @param creature the creature that changed
+     * @param kind     the kind of change
+     * @param oldValue the health or resource before the change
+     * @param newValue the health or resource after the change
+     */
+    public CreatureChange(final Creature creature,
+                          final Kind kind,
+                          final int oldValue,
+                          final int newValue)
+    {
+        this.creature = creature;
+        this.kind = kind;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Returns the creature that changed.
+     *
+     * @return the creature
+     */
+    public Creature getCreature()
+    {
+        return creature;
+    }
+
+    /**
+     * Returns the kind of change.
+     *
+     * @return the kind
+     */
+    public Kind getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * Returns the health or resource before the change.
+     * For a coalesced change this is the value before the first of the merged changes.
+     *
+     * @return the old value
+     */
+    public int getOldValue()
+    {
+        return oldValue;
+    }
+
+    /**
+     * Returns the health or resource after the change.
+     *
+     * @return the new value
+     */
+    public int getNewValue()
+    {
+        return newValue;
+    }
+
+    /**
+     * Returns a short description of the change.
+     *
+     * @return the change as a string
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("%s %s: %d -> %d", creature.getName(), kind, oldValue, newValue);
+    }
+}
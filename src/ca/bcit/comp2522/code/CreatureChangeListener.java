@@ -0,0 +1,20 @@
+package ca.bcit.comp2522.code;
+
+/**
+ * Receives the changes of the creatures it is attached to.
+ * Called on the thread that changed the creature, so implementations must return quickly.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface CreatureChangeListener
+{
+    /**
+     * Called after a creature's health or resource has changed.
+     *
+     * @param change the change
+     */
+    void creatureChanged(CreatureChange change);
+}
@@ -0,0 +1,477 @@
+package ca.bcit.comp2522.code;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Publishes the changes of watched creatures to Flow subscribers.
+ * The simulation thread only ever adds to a subscriber's bounded buffer and never waits:
+ * repeated changes of the same kind to the same creature are merged into one change, which
+ * moves to the back of the buffer so changes stay in the order of their latest update, and if
+ * a slow subscriber's buffer is still full its oldest change is dropped and counted.
+ * Changes are delivered on the executor, never more than each subscriber has requested.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class CreatureChangePublisher implements Flow.Publisher<CreatureChange>, CreatureChangeListener
+{
+    private static final int DEFAULT_BUFFER_CAPACITY = 1024;
+
+    private final Executor executor;
+    private final int bufferCapacity;
+    private final List<ChangeSubscription> subscriptions;
+    private final AtomicLong dropped;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a CreatureChangePublisher that delivers on the common fork-join pool.
+     */
+    public CreatureChangePublisher()
+    {
+        this(ForkJoinPool.commonPool(), DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Constructs a CreatureChangePublisher with the specified executor and buffer capacity.
+     *
+     * @param executor       the executor that delivers changes to subscribers (must not be null)
+     * @param bufferCapacity the number of pending changes kept per subscriber (must be positive)
+     * @throws IllegalArgumentException if executor is null or bufferCapacity is not positive
+     */
+    public CreatureChangePublisher(final Executor executor,
+                                   final int bufferCapacity)
+    {
+        if (executor == null)
+        {
+            throw new IllegalArgumentException("Executor must not be null.");
+        }
+
+        if (bufferCapacity <= 0)
+        {
+            throw new IllegalArgumentException("Buffer capacity must be positive: " + bufferCapacity);
+        }
+
+        this.executor = executor;
+        this.bufferCapacity = bufferCapacity;
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        this.dropped = new AtomicLong();
+        this.closed = false;
+    }
+
+    /**
+     * Starts publishing the changes of a creature.
+     * A creature reports to only one listener, so this replaces any listener it already had.
+     *
+     * @param creature the creature to watch (must not be null)
+     * @throws IllegalArgumentException if creature is null
+     */
+    public void watch(final Creature creature)
+    {
+        if (creature == null)
+        {
+            throw new IllegalArgumentException("Creature must not be null.");
+        }
+
+        creature.setChangeListener(this);
+    }
+
+    /**
+     * Stops publishing the changes of a creature.
+     *
+     * @param creature the creature to stop watching (must not be null)
+     * @throws IllegalArgumentException if creature is null
+     */
+    public void unwatch(final Creature creature)
+    {
+        if (creature == null)
+        {
+            throw new IllegalArgumentException("Creature must not be null.");
+        }
+
+        creature.setChangeListener(null);
+    }
+
+    /**
+     * Subscribes to every change.
+     *
+     * @param subscriber the subscriber (must not be null)
+     * @throws NullPointerException if subscriber is null
+     */
+    @Override
+    public void subscribe(final Flow.Subscriber<? super CreatureChange> subscriber)
+    {
+        subscribe(subscriber, change -> true);
+    }
+
+    /**
+     * Subscribes to the changes that pass a filter.
+     * The filter runs on the simulation thread and must be fast.
+     *
+     * @param subscriber the subscriber (must not be null)
+     * @param filter     the test a change must pass to be delivered (must not be null)
+     * @throws NullPointerException if subscriber or filter is null
+     */
+    public void subscribe(final Flow.Subscriber<? super CreatureChange> subscriber,
+                          final Predicate<? super CreatureChange> filter)
+    {
+        final ChangeSubscription subscription;
+
+        if (subscriber == null || filter == null)
+        {
+            throw new NullPointerException("Subscriber and filter must not be null.");
+        }
+
+        subscription = new ChangeSubscription(subscriber, filter);
+        subscriber.onSubscribe(subscription);
+
+        if (closed)
+        {
+            subscription.complete();
+        }
+        else
+        {
+            subscriptions.add(subscription);
+        }
+    }
+
+    /**
+     * Offers a change to every subscriber. Never blocks.
+     *
+     * @param change the change to publish
+     */
+    @Override
+    public void creatureChanged(final CreatureChange change)
+    {
+        for (final ChangeSubscription subscription : subscriptions)
+        {
+            subscription.offer(change);
+        }
+    }
+
+    /**
+     * Returns the number of changes dropped so far because a subscriber's buffer was full.
+     *
+     * @return the total dropped changes across all subscribers
+     */
+    public long getDroppedCount()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * Completes every subscription once its buffered changes have been delivered.
+     * Changes reported after closing are ignored.
+     */
+    public void close()
+    {
+        closed = true;
+
+        for (final ChangeSubscription subscription : subscriptions)
+        {
+            subscription.complete();
+        }
+
+        subscriptions.clear();
+    }
+
+    /**
+     * Identifies the changes that may be merged: same creature, same kind.
+     */
+    private static final class ChangeKey
+    {
+        private final Creature creature;
+        private final CreatureChange.Kind kind;
+
+        /**
+         * Constructs the key of a change.
+         *
+         * @param change the change
+         */
+        private ChangeKey(final CreatureChange change)
+        {
+            this.creature = change.getCreature();
+            this.kind = change.getKind();
+        }
+
+        /**
+         * Checks if another key refers to the same creature and kind.
+         *
+         * @param other the object to compare with
+         * @return true if both keys match, false otherwise
+         */
+        @Override
+        public boolean equals(final Object other)
+        {
+            if (!(other instanceof ChangeKey))
+            {
+                return false;
+            }
+
+            return creature == ((ChangeKey)other).creature &&
+                    kind == ((ChangeKey)other).kind;
+        }
+
+        /**
+         * Returns a hash code based on the creature's identity and the kind.
+         *
+         * @return the hash code
+         */
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode(creature) * 31 + kind.ordinal();
+        }
+    }
+
+    /**
+     * One subscriber's filter, buffer, and outstanding demand.
+     */
+    private final class ChangeSubscription implements Flow.Subscription
+    {
+        private final Flow.Subscriber<? super CreatureChange> subscriber;
+        private final Predicate<? super CreatureChange> filter;
+        private final Map<ChangeKey, CreatureChange> pending;
+        private final AtomicLong demand;
+        private final AtomicInteger drainRequests;
+        private volatile IllegalArgumentException requestError;
+        private volatile boolean cancelled;
+        private volatile boolean completing;
+        private boolean completed;
+
+        /**
+         * Constructs a ChangeSubscription.
+         *
+         * @param subscriber the subscriber
+         * @param filter     the subscriber's filter
+         */
+        private ChangeSubscription(final Flow.Subscriber<? super CreatureChange> subscriber,
+                                   final Predicate<? super CreatureChange> filter)
+        {
+            this.subscriber = subscriber;
+            this.filter = filter;
+            this.pending = new LinkedHashMap<>();
+            this.demand = new AtomicLong();
+            this.drainRequests = new AtomicInteger();
+            this.requestError = null;
+            this.cancelled = false;
+            this.completing = false;
+            this.completed = false;
+        }
+
+        /**
+         * Adds to the number of changes the subscriber is ready to receive.
+         * A request that is not positive ends the subscription with onError, signalled by the drain
+         * so it never overlaps an onNext.
+         *
+         * @param n the number of additional changes (must be positive)
+         */
+        @Override
+        public void request(final long n)
+        {
+            if (n <= 0L)
+            {
+                if (requestError == null)
+                {
+                    requestError = new IllegalArgumentException("Request must be positive: " + n);
+                }
+
+                subscriptions.remove(this);
+                scheduleDrain();
+                return;
+            }
+
+            demand.accumulateAndGet(n, (current, added) -> current + added < 0L ? Long.MAX_VALUE : current + added);
+            scheduleDrain();
+        }
+
+        /**
+         * Stops delivery and discards buffered changes.
+         */
+        @Override
+        public void cancel()
+        {
+            cancelled = true;
+            subscriptions.remove(this);
+
+            synchronized (pending)
+            {
+                pending.clear();
+            }
+        }
+
+        /**
+         * Buffers a change if it passes the filter, merging it with a pending change of the same key.
+         * A merged change moves to the back, behind any change of another kind reported before it,
+         * so a DIED followed by a heal is not delivered after the heal.
+         *
+         * @param change the change
+         */
+        private void offer(final CreatureChange change)
+        {
+            if (cancelled || completing || !filter.test(change))
+            {
+                return;
+            }
+
+            synchronized (pending)
+            {
+                final ChangeKey key;
+                final CreatureChange earlier;
+
+                key = new ChangeKey(change);
+                earlier = pending.get(key);
+
+                if (earlier != null)
+                {
+                    pending.remove(key);
+                    pending.put(key, new CreatureChange(change.getCreature(),
+                            change.getKind(),
+                            earlier.getOldValue(),
+                            change.getNewValue()));
+                }
+                else
+                {
+                    if (pending.size() >= bufferCapacity)
+                    {
+                        final Iterator<ChangeKey> oldest;
+
+                        oldest = pending.keySet().iterator();
+                        oldest.next();
+                        oldest.remove();
+                        dropped.incrementAndGet();
+                    }
+
+                    pending.put(key, change);
+                }
+            }
+
+            scheduleDrain();
+        }
+
+        /**
+         * Marks the subscription to complete after its buffered changes are delivered.
+         */
+        private void complete()
+        {
+            completing = true;
+            scheduleDrain();
+        }
+
+        /**
+         * Starts a drain on the executor unless one is already running.
+         */
+        private void scheduleDrain()
+        {
+            if (drainRequests.getAndIncrement() == 0)
+            {
+                executor.execute(this::drain);
+            }
+        }
+
+        /**
+         * Delivers buffered changes while there is demand, then completes if closing.
+         * Only one drain runs at a time; requests made during a drain cause another pass.
+         */
+        private void drain()
+        {
+            int missed;
+
+            missed = 1;
+
+            do
+            {
+                if (requestError != null && !cancelled)
+                {
+                    cancel();
+                    subscriber.onError(requestError);
+                }
+
+                deliverPending();
+
+                if (completing && !cancelled && !completed && isEmpty())
+                {
+                    completed = true;
+                    subscriber.onComplete();
+                }
+
+                missed = drainRequests.addAndGet(-missed);
+            }
+            while (missed != 0);
+        }
+
+        /**
+         * Delivers buffered changes, oldest first, up to the outstanding demand.
+         */
+        private void deliverPending()
+        {
+            while (!cancelled && requestError == null && demand.get() > 0L)
+            {
+                final CreatureChange next;
+
+                next = poll();
+
+                if (next == null)
+                {
+                    return;
+                }
+
+                if (demand.get() != Long.MAX_VALUE)
+                {
+                    demand.decrementAndGet();
+                }
+
+                subscriber.onNext(next);
+            }
+        }
+
+        /**
+         * Removes and returns the oldest buffered change.
+         *
+         * @return the oldest change, or null if the buffer is empty
+         */
+        private CreatureChange poll()
+        {
+            synchronized (pending)
+            {
+                final Iterator<CreatureChange> oldest;
+                final CreatureChange change;
+
+                oldest = pending.values().iterator();
+
+                if (!oldest.hasNext())
+                {
+                    return null;
+                }
+
+                change = oldest.next();
+                oldest.remove();
+
+                return change;
+            }
+        }
+
+        /**
+         * Checks whether the buffer is empty.
+         *
+         * @return true if no change is waiting, false otherwise
+         */
+        private boolean isEmpty()
+        {
+            synchronized (pending)
+            {
+                return pending.isEmpty();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package ca.bcit.comp2522.code;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for the construction of a creature.
+ * Recorded only once the creature is fully constructed: a Dragon, Elf, or Orc whose resource
+ * is rejected after the Creature fields are set records nothing.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+@Name(CreatureCreatedEvent.NAME)
+@Label("Creature Created")
+@Category({"Creatures", "Lifecycle"})
+@Description("A Creature, Dragon, Elf, or Orc that was constructed")
+@StackTrace(false)
+final class CreatureCreatedEvent extends Event
+{
+    static final String NAME = "ca.bcit.comp2522.CreatureCreated";
+
+    @Label("Creature")
+    String creature;
+
+    @Label("Type")
+    String type;
+
+    @Label("Health")
+    int health;
+
+    /**
+     * Records the construction of a creature if this event is enabled.
+     *
+     * @param created the creature that was constructed
+     */
+    static void record(final Creature created)
+    {
+        final CreatureCreatedEvent event;
+
+        event = new CreatureCreatedEvent();
+
+        if (event.shouldCommit())
+        {
+            event.creature = created.getName();
+            event.type = created.getClass().getSimpleName();
+            event.health = created.getHealth();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package ca.bcit.comp2522.code;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * An immutable copy of a creature's state at the moment a World version was published.
+ * Snapshots can be read from any thread while the live creature keeps changing.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public final class CreatureSnapshot
+{
+    private final String name;
+    private final CreatureType type;
+    private final long dateOfBirthMillis;
+    private final int birthYear;
+    private final int birthDayOfYear;
+    private final int health;
+    private final int resource;
+
+    /**
+     * Constructs a CreatureSnapshot from the current state of a creature.
+     *
+     * @param creature the creature to copy (must not be null)
+     * @throws IllegalArgumentException if creature is null
+     */
+    CreatureSnapshot(final Creature creature)
+    {
+        this(CreatureType.of(creature),
+                creature.getName(),
+                creature.getDateOfBirth().getTime(),
+                creature.getBirthYear(),
+                creature.getBirthDayOfYear(),
+                creature.getHealth(),
+                CreatureType.resourceOf(creature));
+    }
+
+    /**
+     * Constructs a CreatureSnapshot from stored values, without a live creature.
+     * The birth year and day of year are worked out from the date of birth.
+     *
+     * @param type              the creature type
+     * @param name              the creature's name
+     * @param dateOfBirthMillis the creature's date of birth in milliseconds
+     * @param health            the creature's health
+     * @param resource          the creature's firepower, mana, or rage, or zero for a plain Creature
+     */
+    CreatureSnapshot(final CreatureType type,
+                     final String name,
+                     final long dateOfBirthMillis,
+                     final int health,
+                     final int resource)
+    {
+        final Calendar birth;
+
+        birth = Calendar.getInstance();
+        birth.setTimeInMillis(dateOfBirthMillis);
+
+        this.type = type;
+        this.name = name;
+        this.dateOfBirthMillis = dateOfBirthMillis;
+        this.birthYear = birth.get(Calendar.YEAR);
+        this.birthDayOfYear = birth.get(Calendar.DAY_OF_YEAR);
+        this.health = health;
+        this.resource = resource;
+    }
+
+    /**
+     * Constructs a CreatureSnapshot from values already known, including the birth year and day of year.
+     *
+     * @param type              the creature type
+     * @param name              the creature's name
+     * @param dateOfBirthMillis the creature's date of birth in milliseconds
+     * @param birthYear         the calendar year of birth
+     * @param birthDayOfYear    the calendar day of year of birth
+     * @param health            the creature's health
+     * @param resource          the creature's firepower, mana, or rage, or zero for a plain Creature
+     */
+    private CreatureSnapshot(final CreatureType type,
+                             final String name,
+                             final long dateOfBirthMillis,
+                             final int birthYear,
+                             final int birthDayOfYear,
+                             final int health,
+                             final int resource)
+    {
+        this.type = type;
+        this.name = name;
+        this.dateOfBirthMillis = dateOfBirthMillis;
+        this.birthYear = birthYear;
+        this.birthDayOfYear = birthDayOfYear;
+        this.health = health;
+        this.resource = resource;
+    }
+
+    /**
+     * Returns the creature's name.
+     *
+     * @return the name of the creature
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Returns the kind of creature this snapshot was taken from.
+     *
+     * @return the creature type
+     */
+    public CreatureType getType()
+    {
+        return type;
+    }
+
+    /**
+     * Returns a copy of the creature's birthdate.
+     *
+     * @return a copy of the creature's date of birth
+     */
+    public Date getDateOfBirth()
+    {
+        return new Date(dateOfBirthMillis);
+    }
+
+    /**
+     * Returns the creature's health when the snapshot was taken.
+     *
+     * @return the captured health
+     */
+    public int getHealth()
+    {
+        return health;
+    }
+
+    /**
+     * Returns the creature's firepower, mana, or rage when the snapshot was taken.
+     *
+     * @return the captured resource, or zero for a plain Creature
+     */
+    public int getResource()
+    {
+        return resource;
+    }
+
+    /**
+     * Checks if the creature was alive when the snapshot was taken.
+     *
+     * @return true if the captured health is greater than zero, false otherwise
+     */
+    public boolean isAlive()
+    {
+        return health > 0;
+    }
+
+    /**
+     * Calculates the creature's age in years the same way as Creature.getAgeYears(),
+     * from the birth year and day of year captured with the snapshot and the cached current date.
+     *
+     * @return the creature's age in years
+     */
+    public int getAgeYears()
+    {
+        final Today today;
+
+        today = Today.current();
+
+        return Creature.calculateAgeYears(today.getYear(), today.getDayOfYear(), birthYear, birthDayOfYear);
+    }
+
+    /**
+     * Returns a formatted string in the same layout as the live creature's getDetails().
+     *
+     * @return a formatted string with the captured creature details
+     */
+    public String getDetails()
+    {
+        final String details;
+
+        details = String.format("Class=%s, Name=%s, DOB=%s, AgeYears=%d, Health=%d",
+                typeName(),
+                name,
+                new Date(dateOfBirthMillis),
+                getAgeYears(),
+                health);
+
+        if (type == CreatureType.CREATURE)
+        {
+            return details;
+        }
+
+        return String.format("%s, %s=%d", details, type.getResourceName(), resource);
+    }
+
+    /**
+     * Checks whether the creature still has the state captured in this snapshot.
+     *
+     * @param creature the live creature this snapshot was taken from
+     * @return true if health and resource are unchanged, false otherwise
+     */
+    boolean matches(final Creature creature)
+    {
+        return creature.getHealth() == health &&
+                CreatureType.resourceOf(creature) == resource;
+    }
+
+    /**
+     * Returns the class name shown in getDetails() for this snapshot's type.
+     *
+     * @return the simple class name of the original creature
+     */
+    private String typeName()
+    {
+        switch (type)
+        {
+            case DRAGON:
+                return Dragon.class.getSimpleName();
+            case ELF:
+                return Elf.class.getSimpleName();
+            case ORC:
+                return Orc.class.getSimpleName();
+            default:
+                return Creature.class.getSimpleName();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package ca.bcit.comp2522.code;
+
+import java.util.Date;
+
+/**
+ * Identifies the concrete kind of a creature and the name of its resource.
+ * Used wherever creature state is stored outside of the Creature objects themselves.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public enum CreatureType
+{
+    CREATURE("None"),
+    DRAGON("FirePower"),
+    ELF("Mana"),
+    ORC("Rage");
+
+    private static final int NO_RESOURCE = 0;
+
+    private final String resourceName;
+
+    /**
+     * Constructs a CreatureType with the label used for its resource.
+     *
+     * @param resourceName the name of the resource as shown in getDetails()
+     */
+    CreatureType(final String resourceName)
+    {
+        this.resourceName = resourceName;
+    }
+
+    /**
+     * Returns the name of the resource as shown in getDetails().
+     *
+     * @return the resource name
+     */
+    public String getResourceName()
+    {
+        return resourceName;
+    }
+
+    /**
+     * Creates a creature of this type.
+     *
+     * @param name        the creature's name
+     * @param dateOfBirth the creature's date of birth
+     * @param health      the creature's initial health
+     * @param resource    the creature's initial firepower, mana, or rage (ignored for CREATURE)
+     * @return the new creature
+     * @throws IllegalArgumentException if any value is invalid for this type
+     */
+    public Creature create(final String name,
+                           final Date dateOfBirth,
+                           final int health,
+                           final int resource)
+    {
+        switch (this)
+        {
+            case DRAGON:
+                return new Dragon(name, dateOfBirth, health, resource);
+            case ELF:
+                return new Elf(name, dateOfBirth, health, resource);
+            case ORC:
+                return new Orc(name, dateOfBirth, health, resource);
+            default:
+                return new Creature(name, dateOfBirth, health);
+        }
+    }
+
+    /**
+     * Rebuilds a stored creature of this type without recording a creation event or any change,
+     * since reading a creature back from storage is not part of a battle.
+     * The creature is constructed at MAX_HEALTH, because constructors reject zero health,
+     * and then given its stored health directly, so a dead creature comes back dead.
+     *
+     * @param name        the creature's name
+     * @param dateOfBirth the creature's date of birth
+     * @param health      the stored health (DEAD_HEALTH to MAX_HEALTH)
+     * @param resource    the stored firepower, mana, or rage (ignored for CREATURE)
+     * @return the rebuilt creature
+     * @throws IllegalArgumentException if any value is invalid for this type
+     */
+    Creature restore(final String name,
+                     final Date dateOfBirth,
+                     final int health,
+                     final int resource)
+    {
+        final Creature creature;
+
+        switch (this)
+        {
+            case DRAGON:
+                creature = new Dragon(name, dateOfBirth, Creature.MAX_HEALTH, resource, false);
+                break;
+            case ELF:
+                creature = new Elf(name, dateOfBirth, Creature.MAX_HEALTH, resource, false);
+                break;
+            case ORC:
+                creature = new Orc(name, dateOfBirth, Creature.MAX_HEALTH, resource, false);
+                break;
+            default:
+                creature = new Creature(name, dateOfBirth, Creature.MAX_HEALTH, false);
+                break;
+        }
+
+        creature.setStoredHealth(health);
+
+        return creature;
+    }
+
+    /**
+     * Checks the values create() would be given, without creating a creature.
+     * Applies the same rules as the constructors.
+     *
+     * @param dateOfBirth the creature's date of birth
+     * @param health      the creature's initial health
+     * @param resource    the creature's initial firepower, mana, or rage (ignored for CREATURE)
+     * @throws IllegalArgumentException if any value is invalid for this type
+     */
+    public void validate(final Date dateOfBirth,
+                         final int health,
+                         final int resource)
+    {
+        Creature.validateDateOfBirth(dateOfBirth);
+        Creature.validateHealth(health);
+
+        switch (this)
+        {
+            case DRAGON:
+                Dragon.validateFirePower(resource);
+                break;
+            case ELF:
+                Elf.validateMana(resource);
+                break;
+            case ORC:
+                Orc.validateRage(resource);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Returns the type of the specified creature.
+     *
+     * @param creature the creature to classify (must not be null)
+     * @return the matching CreatureType
+     * @throws IllegalArgumentException if creature is null
+     */
+    public static CreatureType of(final Creature creature)
+    {
+        if (creature == null)
+        {
+            throw new IllegalArgumentException("Creature must not be null.");
+        }
+
+        if (creature instanceof Dragon)
+        {
+            return DRAGON;
+        }
+        else if (creature instanceof Elf)
+        {
+            return ELF;
+        }
+        else if (creature instanceof Orc)
+        {
+            return ORC;
+        }
+
+        return CREATURE;
+    }
+
+    /**
+     * Returns the current resource value of the specified creature.
+     * This is firepower for a Dragon, mana for an Elf, rage for an Orc, and NO_RESOURCE otherwise.
+     *
+     * @param creature the creature to read (must not be null)
+     * @return the current resource value
+     * @throws IllegalArgumentException if creature is null
+     */
+    public static int resourceOf(final Creature creature)
+    {
+        if (creature instanceof Dragon)
+        {
+            return ((Dragon)creature).getFirePower();
+        }
+        else if (creature instanceof Elf)
+        {
+            return ((Elf)creature).getMana();
+        }
+        else if (creature instanceof Orc)
+        {
+            return ((Orc)creature).getRage();
+        }
+        else if (creature == null)
+        {
+            throw new IllegalArgumentException("Creature must not be null.");
+        }
+
+        return NO_RESOURCE;
+    }
+}
@@ -12,10 +12,10 @@ import java.util.Date;
 public class Dragon extends Creature
 {
     private static final int MIN_FIRE_POWER = 0;
-    private static final int MAX_FIRE_POWER = 100;
+    static final int MAX_FIRE_POWER = 100;
 
-    private static final int FIRE_POWER_COST = 10;
-    private static final int FIRE_DAMAGE = 20;
+    static final int FIRE_POWER_COST = 10;
+    static final int FIRE_DAMAGE = 20;
 
     private int firePower;
 
@@ -34,11 +34,36 @@ public class Dragon extends Creature
                   final int health,
                   final int firePower)
     {
-        super(name, dateOfBirth, health);
+        this(name, dateOfBirth, health, firePower, true);
+    }
+
+    /**
+     * Constructs a Dragon, optionally without recording the creation event.
+     * CreatureType.restore() passes false when it rebuilds a stored dragon.
+     *
+     * @param name          the dragon's name
+     * @param dateOfBirth   the dragon's date of birth
+     * @param health        the dragon's initial health
+     * @param firePower     the dragon's initial firepower
+     * @param recordCreated true to record the creation event, false to record nothing
+     * @throws IllegalArgumentException if any parameter is invalid
+     */
+    Dragon(final String name,
+           final Date dateOfBirth,
+           final int health,
+           final int firePower,
+           final boolean recordCreated)
+    {
+        super(name, dateOfBirth, health, false);
 
         validateFirePower(firePower);
 
         this.firePower = firePower;
+
+        if (recordCreated)
+        {
+            CreatureCreatedEvent.record(this);
+        }
     }
 
     /**
@@ -60,7 +85,7 @@ public class Dragon extends Creature
     @Override
     public String getDetails()
     {
-        return String.format("%s, FirePower=%d", super.getDetails(), firePower);
+        return super.getDetails() + ", FirePower=" + firePower;
     }
 
     /**
@@ -74,15 +99,28 @@ public class Dragon extends Creature
      */
     public void breatheFire(final Creature target) throws LowFirePowerException
     {
-        validateTarget(target);
+        final AttackEvent event;
+
+        event = new AttackEvent();
+        event.begin();
+
+        validateTarget(target, event);
 
         if (firePower < FIRE_POWER_COST)
         {
-            throw new LowFirePowerException("Not enough fire power to breathe fire. FirePower=" + firePower);
+            final LowFirePowerException exception;
+
+            exception = new LowFirePowerException("Not enough fire power to breathe fire. FirePower=" + firePower);
+            event.commitFailure(this, "breatheFire", target, exception);
+
+            throw exception;
         }
 
         firePower -= FIRE_POWER_COST;
+        fireChange(CreatureChange.Kind.RESOURCE_SPENT, firePower + FIRE_POWER_COST, firePower);
         target.takeDamage(FIRE_DAMAGE);
+
+        event.commitSuccess(this, "breatheFire", target, FIRE_DAMAGE);
     }
 
     /**
@@ -95,17 +133,22 @@ public class Dragon extends Creature
      */
     public void restoreFirePower(final int amount)
     {
+        final int firePowerBefore;
+
         if (amount < MIN_FIRE_POWER)
         {
             throw new IllegalArgumentException("Restore amount cannot be negative: " + amount);
         }
 
+        firePowerBefore = firePower;
         firePower += amount;
 
         if (firePower > MAX_FIRE_POWER)
         {
             firePower = MAX_FIRE_POWER;
         }
+
+        fireChange(CreatureChange.Kind.RESOURCE_RESTORED, firePowerBefore, firePower);
     }
 
     /**
@@ -114,7 +157,7 @@ public class Dragon extends Creature
      * @param firePower the firepower value to validate
      * @throws IllegalArgumentException if firepower is not between MIN_FIRE_POWER and MAX_FIRE_POWER inclusive
      */
-    private static void validateFirePower(final int firePower)
+    static void validateFirePower(final int firePower)
     {
         if (firePower < MIN_FIRE_POWER ||
                 firePower > MAX_FIRE_POWER)
@@ -125,15 +168,23 @@ public class Dragon extends Creature
 
     /**
      * Validates that the target creature is not null.
+     * A null target is recorded as a failed breatheFire before the exception is thrown.
      *
      * @param target the target creature to validate
+     * @param event  the attack event begun by breatheFire()
      * @throws IllegalArgumentException if target is null
      */
-    private static void validateTarget(final Creature target)
+    private void validateTarget(final Creature target,
+                                final AttackEvent event)
     {
         if (target == null)
         {
-            throw new IllegalArgumentException("Target must not be null.");
+            final IllegalArgumentException exception;
+
+            exception = new IllegalArgumentException("Target must not be null.");
+            event.commitFailure(this, "breatheFire", null, exception);
+
+            throw exception;
         }
     }
 }
\ No newline at end of file
@@ -12,10 +12,10 @@ import java.util.Date;
 public class Elf extends Creature
 {
     private static final int MIN_MANA = 0;
-    private static final int MAX_MANA = 50;
+    static final int MAX_MANA = 50;
 
-    private static final int SPELL_MANA_COST = 5;
-    private static final int SPELL_DAMAGE = 10;
+    static final int SPELL_MANA_COST = 5;
+    static final int SPELL_DAMAGE = 10;
 
     private int mana;
 
@@ -34,11 +34,36 @@ public class Elf extends Creature
                final int health,
                final int mana)
     {
-        super(name, dateOfBirth, health);
+        this(name, dateOfBirth, health, mana, true);
+    }
+
+    /**
+     * Constructs a Elf, optionally without recording the creation event.
+     * CreatureType.restore() passes false when it rebuilds a stored elf.
+     *
+     * @param name          the elf's name
+     * @param dateOfBirth   the elf's date of birth
+     * @param health        the elf's initial health
+     * @param mana          the elf's initial mana
+     * @param recordCreated true to record the creation event, false to record nothing
+     * @throws IllegalArgumentException if any parameter is invalid
+     */
+    Elf(final String name,
+        final Date dateOfBirth,
+        final int health,
+        final int mana,
+        final boolean recordCreated)
+    {
+        super(name, dateOfBirth, health, false);
 
         validateMana(mana);
 
         this.mana = mana;
+
+        if (recordCreated)
+        {
+            CreatureCreatedEvent.record(this);
+        }
     }
 
     /**
@@ -60,7 +85,7 @@ public class Elf extends Creature
     @Override
     public String getDetails()
     {
-        return String.format("%s, Mana=%d", super.getDetails(), mana);
+        return super.getDetails() + ", Mana=" + mana;
     }
 
     /**
@@ -74,15 +99,28 @@ public class Elf extends Creature
      */
     public void castSpell(final Creature target) throws LowManaException
     {
-        validateTarget(target);
+        final AttackEvent event;
+
+        event = new AttackEvent();
+        event.begin();
+
+        validateTarget(target, event);
 
         if (mana < SPELL_MANA_COST)
         {
-            throw new LowManaException("Not enough mana to cast spell. Mana=" + mana);
+            final LowManaException exception;
+
+            exception = new LowManaException("Not enough mana to cast spell. Mana=" + mana);
+            event.commitFailure(this, "castSpell", target, exception);
+
+            throw exception;
         }
 
         mana -= SPELL_MANA_COST;
+        fireChange(CreatureChange.Kind.RESOURCE_SPENT, mana + SPELL_MANA_COST, mana);
         target.takeDamage(SPELL_DAMAGE);
+
+        event.commitSuccess(this, "castSpell", target, SPELL_DAMAGE);
     }
 
     /**
@@ -95,17 +133,22 @@ public class Elf extends Creature
      */
     public void restoreMana(final int amount)
     {
+        final int manaBefore;
+
         if (amount < MIN_MANA)
         {
             throw new IllegalArgumentException("Restore amount cannot be negative: " + amount);
         }
 
+        manaBefore = mana;
         mana += amount;
 
         if (mana > MAX_MANA)
         {
             mana = MAX_MANA;
         }
+
+        fireChange(CreatureChange.Kind.RESOURCE_RESTORED, manaBefore, mana);
     }
 
     /**
@@ -114,7 +157,7 @@ public class Elf extends Creature
      * @param mana the mana value to validate
      * @throws IllegalArgumentException if mana is not between MIN_MANA and MAX_MANA inclusive
      */
-    private static void validateMana(final int mana)
+    static void validateMana(final int mana)
     {
         if (mana < MIN_MANA ||
                 mana > MAX_MANA)
@@ -125,15 +168,23 @@ public class Elf extends Creature
 
     /**
      * Validates that the target creature is not null.
+     * A null target is recorded as a failed castSpell before the exception is thrown.
      *
      * @param target the target creature to validate
+     * @param event  the attack event begun by castSpell()
      * @throws IllegalArgumentException if target is null
      */
-    private static void validateTarget(final Creature target)
+    private void validateTarget(final Creature target,
+                                final AttackEvent event)
     {
         if (target == null)
         {
-            throw new IllegalArgumentException("Target must not be null.");
+            final IllegalArgumentException exception;
+
+            exception = new IllegalArgumentException("Target must not be null.");
+            event.commitFailure(this, "castSpell", null, exception);
+
+            throw exception;
         }
     }
 }
\ No newline at end of file
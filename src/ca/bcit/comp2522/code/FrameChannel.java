@@ -0,0 +1,198 @@
+package ca.bcit.comp2522.code;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A non-blocking socket channel that sends and receives length-prefixed binary frames.
+ * Both directions use direct buffers that grow when a frame does not fit.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+final class FrameChannel
+{
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private final SocketChannel channel;
+    private ByteBuffer out;
+    private ByteBuffer in;
+    private ByteBuffer frame;
+
+    /**
+     * Constructs a FrameChannel and switches the socket to non-blocking mode.
+     *
+     * @param channel the connected socket
+     * @throws IOException if the socket cannot be configured
+     */
+    FrameChannel(final SocketChannel channel) throws IOException
+    {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+        this.channel = channel;
+        this.out = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+        this.in = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+        this.frame = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Returns the underlying socket, for registering with a selector.
+     *
+     * @return the socket channel
+     */
+    SocketChannel channel()
+    {
+        return channel;
+    }
+
+    /**
+     * Starts a new outgoing frame with room for at least the specified payload.
+     * The caller puts the payload into the returned buffer and then calls endFrame().
+     *
+     * @param payloadBytes the largest payload the frame will hold
+     * @return the buffer to put the payload into
+     */
+    ByteBuffer startFrame(final int payloadBytes)
+    {
+        if (out.capacity() < payloadBytes + LENGTH_BYTES)
+        {
+            out = ByteBuffer.allocateDirect(Math.max(out.capacity() * 2, payloadBytes + LENGTH_BYTES));
+        }
+
+        out.clear();
+        out.position(LENGTH_BYTES);
+
+        return out;
+    }
+
+    /**
+     * Returns the buffer of the frame started by the last startFrame() call, to append more payload.
+     * The room reserved by startFrame() must be large enough for everything appended.
+     *
+     * @return the buffer to put the payload into
+     */
+    ByteBuffer startedFrame()
+    {
+        return out;
+    }
+
+    /**
+     * Finishes the outgoing frame so that flush() can send it.
+     */
+    void endFrame()
+    {
+        out.putInt(0, out.position() - LENGTH_BYTES);
+        out.flip();
+    }
+
+    /**
+     * Writes as much of the outgoing frame as the socket accepts without blocking.
+     *
+     * @return true if the whole frame has been written, false if more remains
+     * @throws IOException if the write fails
+     */
+    boolean flush() throws IOException
+    {
+        channel.write(out);
+
+        return !out.hasRemaining();
+    }
+
+    /**
+     * Reads without blocking and returns the next complete incoming frame, if there is one.
+     * The returned buffer is only valid until the next call.
+     *
+     * @return the frame payload, or null if no complete frame has arrived yet
+     * @throws IOException if the read fails or the other side closed the connection
+     */
+    ByteBuffer readFrame() throws IOException
+    {
+        ByteBuffer next;
+
+        next = takeFrame();
+
+        if (next == null)
+        {
+            if (channel.read(in) < 0)
+            {
+                throw new EOFException("Connection closed by peer.");
+            }
+
+            next = takeFrame();
+        }
+
+        return next;
+    }
+
+    /**
+     * Closes the socket.
+     *
+     * @throws IOException if the socket cannot be closed
+     */
+    void close() throws IOException
+    {
+        channel.close();
+    }
+
+    /**
+     * Moves one complete frame out of the input buffer, growing the input buffer for large frames.
+     *
+     * @return the frame payload, or null if the input buffer does not hold a complete frame
+     */
+    private ByteBuffer takeFrame()
+    {
+        final int length;
+        final ByteBuffer payload;
+
+        in.flip();
+
+        if (in.remaining() < LENGTH_BYTES)
+        {
+            in.compact();
+            return null;
+        }
+
+        length = in.getInt(in.position());
+
+        if (in.remaining() < LENGTH_BYTES + length)
+        {
+            if (in.capacity() < LENGTH_BYTES + length)
+            {
+                final ByteBuffer larger;
+
+                larger = ByteBuffer.allocateDirect(LENGTH_BYTES + length);
+                larger.put(in);
+                in = larger;
+            }
+            else
+            {
+                in.compact();
+            }
+
+            return null;
+        }
+
+        if (frame.capacity() < length)
+        {
+            frame = ByteBuffer.allocateDirect(length);
+        }
+
+        in.position(in.position() + LENGTH_BYTES);
+        payload = in.slice();
+        payload.limit(length);
+        in.position(in.position() + length);
+
+        frame.clear();
+        frame.put(payload);
+        frame.flip();
+        in.compact();
+
+        return frame;
+    }
+}
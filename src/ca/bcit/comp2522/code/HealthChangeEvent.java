@@ -0,0 +1,72 @@
+package ca.bcit.comp2522.code;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for takeDamage() and heal().
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+@Name(HealthChangeEvent.NAME)
+@Label("Creature Health Change")
+@Category({"Creatures", "Combat"})
+@Description("Damage or healing applied to a creature")
+@StackTrace(false)
+final class HealthChangeEvent extends Event
+{
+    static final String NAME = "ca.bcit.comp2522.HealthChange";
+
+    static final String DAMAGE = "damage";
+    static final String HEAL = "heal";
+
+    @Label("Creature")
+    String creature;
+
+    @Label("Kind")
+    @Description("Either damage or heal")
+    String kind;
+
+    @Label("Amount")
+    int amount;
+
+    @Label("Health Before")
+    int healthBefore;
+
+    @Label("Health After")
+    int healthAfter;
+
+    /**
+     * Records the health change if this event should be committed.
+     *
+     * @param changed    the creature whose health changed
+     * @param changeKind DAMAGE or HEAL
+     * @param applied    the damage or heal amount requested
+     * @param before     the health before the change
+     * @param after      the health after the change
+     */
+    void commitChange(final Creature changed,
+                      final String changeKind,
+                      final int applied,
+                      final int before,
+                      final int after)
+    {
+        end();
+
+        if (shouldCommit())
+        {
+            creature = changed.getName();
+            kind = changeKind;
+            amount = applied;
+            healthBefore = before;
+            healthAfter = after;
+            commit();
+        }
+    }
+}
@@ -12,15 +12,15 @@ import java.util.Date;
 public class Orc extends Creature
 {
     private static final int MIN_RAGE = 0;
-    private static final int MAX_RAGE = 30;
+    static final int MAX_RAGE = 30;
 
-    private static final int RAGE_INCREASE = 5;
-    private static final int MIN_RAGE_TO_BERSERK = 5;
+    static final int RAGE_INCREASE = 5;
+    static final int MIN_RAGE_TO_BERSERK = 5;
 
-    private static final int BASE_BERSERK_DAMAGE = 15;
-    private static final int DOUBLE_BERSERK_DAMAGE = 30;
+    static final int BASE_BERSERK_DAMAGE = 15;
+    static final int DOUBLE_BERSERK_DAMAGE = 30;
 
-    private static final int DOUBLE_DAMAGE_RAGE_THRESHOLD = 20;
+    static final int DOUBLE_DAMAGE_RAGE_THRESHOLD = 20;
 
     private int rage;
 
@@ -39,11 +39,36 @@ public class Orc extends Creature
                final int health,
                final int rage)
     {
-        super(name, dateOfBirth, health);
+        this(name, dateOfBirth, health, rage, true);
+    }
+
+    /**
+     * Constructs a Orc, optionally without recording the creation event.
+     * CreatureType.restore() passes false when it rebuilds a stored orc.
+     *
+     * @param name          the orc's name
+     * @param dateOfBirth   the orc's date of birth
+     * @param health        the orc's initial health
+     * @param rage          the orc's initial rage
+     * @param recordCreated true to record the creation event, false to record nothing
+     * @throws IllegalArgumentException if any parameter is invalid
+     */
+    Orc(final String name,
+        final Date dateOfBirth,
+        final int health,
+        final int rage,
+        final boolean recordCreated)
+    {
+        super(name, dateOfBirth, health, false);
 
         validateRage(rage);
 
         this.rage = rage;
+
+        if (recordCreated)
+        {
+            CreatureCreatedEvent.record(this);
+        }
     }
 
     /**
@@ -65,7 +90,7 @@ public class Orc extends Creature
     @Override
     public String getDetails()
     {
-        return String.format("%s, Rage=%d", super.getDetails(), rage);
+        return super.getDetails() + ", Rage=" + rage;
     }
 
     /**
@@ -79,15 +104,26 @@ public class Orc extends Creature
      */
     public void berserk(final Creature target)
     {
+        final AttackEvent event;
+        final int rageBefore;
         final int damage;
 
-        validateTarget(target);
+        event = new AttackEvent();
+        event.begin();
+
+        validateTarget(target, event);
 
         if (rage < MIN_RAGE_TO_BERSERK)
         {
-            throw new LowRageException("Not enough rage to berserk. Rage=" + rage);
+            final LowRageException exception;
+
+            exception = new LowRageException("Not enough rage to berserk. Rage=" + rage);
+            event.commitFailure(this, "berserk", target, exception);
+
+            throw exception;
         }
 
+        rageBefore = rage;
         rage += RAGE_INCREASE;
 
         if (rage > MAX_RAGE)
@@ -95,6 +131,8 @@ public class Orc extends Creature
             rage = MAX_RAGE;
         }
 
+        fireChange(CreatureChange.Kind.RESOURCE_GAINED, rageBefore, rage);
+
         if (rage > DOUBLE_DAMAGE_RAGE_THRESHOLD)
         {
             damage = DOUBLE_BERSERK_DAMAGE;
@@ -105,6 +143,8 @@ public class Orc extends Creature
         }
 
         target.takeDamage(damage);
+
+        event.commitSuccess(this, "berserk", target, damage);
     }
 
     /**
@@ -113,7 +153,7 @@ public class Orc extends Creature
      * @param rage the rage value to validate
      * @throws IllegalArgumentException if rage is not between MIN_RAGE and MAX_RAGE inclusive
      */
-    private static void validateRage(final int rage)
+    static void validateRage(final int rage)
     {
         if (rage < MIN_RAGE ||
                 rage > MAX_RAGE)
@@ -124,15 +164,23 @@ public class Orc extends Creature
 
     /**
      * Validates that the target creature is not null.
+     * A null target is recorded as a failed berserk before the exception is thrown.
      *
      * @param target the target creature to validate
+     * @param event  the attack event begun by berserk()
      * @throws IllegalArgumentException if target is null
      */
-    private static void validateTarget(final Creature target)
+    private void validateTarget(final Creature target,
+                                final AttackEvent event)
     {
         if (target == null)
         {
-            throw new IllegalArgumentException("Target must not be null.");
+            final IllegalArgumentException exception;
+
+            exception = new IllegalArgumentException("Target must not be null.");
+            event.commitFailure(this, "berserk", null, exception);
+
+            throw exception;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package ca.bcit.comp2522.code;
+
+/**
+ * Packs a creature's type, health, and resource into a single int.
+ * Health (0..100) and every resource (firepower 0..100, mana 0..50, rage 0..30) fit in
+ * seven bits each and the type in two, so the whole state can be replaced with one CAS.
+ *
+ * <pre>
+ * bits 0-6   health
+ * bits 7-13  resource
+ * bits 14-15 type (ordinal of CreatureType)
+ * </pre>
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public final class PackedCreatureState
+{
+    private static final int FIELD_BITS = 7;
+    private static final int FIELD_MASK = (1 << FIELD_BITS) - 1;
+    private static final int RESOURCE_SHIFT = FIELD_BITS;
+    private static final int TYPE_SHIFT = FIELD_BITS * 2;
+    private static final int TYPE_MASK = 0b11;
+
+    private static final CreatureType[] TYPES = CreatureType.values();
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private PackedCreatureState()
+    {
+    }
+
+    /**
+     * Packs the specified state into an int.
+     *
+     * @param type     the creature type (must not be null)
+     * @param health   the health (0 to 127)
+     * @param resource the resource (0 to 127)
+     * @return the packed state
+     * @throws IllegalArgumentException if type is null or a value does not fit in its field
+     */
+    public static int pack(final CreatureType type,
+                           final int health,
+                           final int resource)
+    {
+        if (type == null)
+        {
+            throw new IllegalArgumentException("Type must not be null.");
+        }
+
+        validateField("Health", health);
+        validateField("Resource", resource);
+
+        return (type.ordinal() << TYPE_SHIFT) | (resource << RESOURCE_SHIFT) | health;
+    }
+
+    /**
+     * Packs the current state of a creature into an int.
+     *
+     * @param creature the creature to pack (must not be null)
+     * @return the packed state
+     * @throws IllegalArgumentException if creature is null
+     */
+    public static int pack(final Creature creature)
+    {
+        return pack(CreatureType.of(creature), creature.getHealth(), CreatureType.resourceOf(creature));
+    }
+
+    /**
+     * Returns the type held in a packed state.
+     *
+     * @param state the packed state
+     * @return the creature type
+     */
+    public static CreatureType type(final int state)
+    {
+        return TYPES[(state >>> TYPE_SHIFT) & TYPE_MASK];
+    }
+
+    /**
+     * Returns the health held in a packed state.
+     *
+     * @param state the packed state
+     * @return the health
+     */
+    public static int health(final int state)
+    {
+        return state & FIELD_MASK;
+    }
+
+    /**
+     * Returns the resource held in a packed state.
+     *
+     * @param state the packed state
+     * @return the resource
+     */
+    public static int resource(final int state)
+    {
+        return (state >>> RESOURCE_SHIFT) & FIELD_MASK;
+    }
+
+    /**
+     * Returns a copy of a packed state with a different health.
+     *
+     * @param state  the packed state
+     * @param health the new health (0 to 127)
+     * @return the updated packed state
+     * @throws IllegalArgumentException if health does not fit in its field
+     */
+    public static int withHealth(final int state,
+                                 final int health)
+    {
+        validateField("Health", health);
+
+        return (state & ~FIELD_MASK) | health;
+    }
+
+    /**
+     * Returns a copy of a packed state with a different resource.
+     *
+     * @param state    the packed state
+     * @param resource the new resource (0 to 127)
+     * @return the updated packed state
+     * @throws IllegalArgumentException if resource does not fit in its field
+     */
+    public static int withResource(final int state,
+                                   final int resource)
+    {
+        validateField("Resource", resource);
+
+        return (state & ~(FIELD_MASK << RESOURCE_SHIFT)) | (resource << RESOURCE_SHIFT);
+    }
+
+    /**
+     * Validates that a value fits in a seven-bit field.
+     *
+     * @param field the name of the field for the error message
+     * @param value the value to validate
+     * @throws IllegalArgumentException if value is not between 0 and 127 inclusive
+     */
+    private static void validateField(final String field,
+                                      final int value)
+    {
+        if (value < 0 || value > FIELD_MASK)
+        {
+            throw new IllegalArgumentException(field + " out of range (0.." + FIELD_MASK + "): " + value);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package ca.bcit.comp2522.code;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A population of creatures stored as one packed int each, safe for concurrent updates without locks.
+ * Every operation reads a creature's word, computes the new word with the same rules as the
+ * Creature classes, and installs it with a compare-and-set, retrying if another thread got there first.
+ * An attack is two CAS operations: one to spend the attacker's resource and one to damage the target.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class PackedPopulation
+{
+    private static final int MIN_AMOUNT = 0;
+
+    private final AtomicIntegerArray states;
+
+    /**
+     * Constructs a PackedPopulation from the current state of the specified creatures.
+     *
+     * @param creatures the creatures to pack (must not be null or contain null)
+     * @throws IllegalArgumentException if creatures is null or contains null
+     */
+    public PackedPopulation(final List<? extends Creature> creatures)
+    {
+        if (creatures == null)
+        {
+            throw new IllegalArgumentException("Creatures must not be null.");
+        }
+
+        this.states = new AtomicIntegerArray(creatures.size());
+
+        for (int i = 0; i < creatures.size(); i++)
+        {
+            states.set(i, PackedCreatureState.pack(creatures.get(i)));
+        }
+    }
+
+    /**
+     * Returns the number of creatures in the population.
+     *
+     * @return the creature count
+     */
+    public int size()
+    {
+        return states.length();
+    }
+
+    /**
+     * Returns the packed state of the creature at the specified index.
+     *
+     * @param index the creature index
+     * @return the packed state, readable with PackedCreatureState
+     */
+    public int getState(final int index)
+    {
+        return states.get(index);
+    }
+
+    /**
+     * Returns the health of the creature at the specified index.
+     *
+     * @param index the creature index
+     * @return the current health
+     */
+    public int getHealth(final int index)
+    {
+        return PackedCreatureState.health(states.get(index));
+    }
+
+    /**
+     * Returns the firepower, mana, or rage of the creature at the specified index.
+     *
+     * @param index the creature index
+     * @return the current resource
+     */
+    public int getResource(final int index)
+    {
+        return PackedCreatureState.resource(states.get(index));
+    }
+
+    /**
+     * Checks if the creature at the specified index is alive.
+     *
+     * @param index the creature index
+     * @return true if health is greater than zero, false otherwise
+     */
+    public boolean isAlive(final int index)
+    {
+        return getHealth(index) > Creature.DEAD_HEALTH;
+    }
+
+    /**
+     * Reduces a creature's health the same way as Creature.takeDamage().
+     *
+     * @param index  the creature index
+     * @param damage the amount of damage to inflict (must be non-negative)
+     * @throws DamageException if damage is negative
+     */
+    public void takeDamage(final int index,
+                           final int damage)
+    {
+        int current;
+        int next;
+
+        if (damage < MIN_AMOUNT)
+        {
+            throw new DamageException("Damage cannot be negative: " + damage);
+        }
+
+        do
+        {
+            current = states.get(index);
+            next = PackedCreatureState.withHealth(current,
+                    CombatRules.healthAfterDamage(PackedCreatureState.health(current), damage));
+        }
+        while (!states.compareAndSet(index, current, next));
+    }
+
+    /**
+     * Increases a creature's health the same way as Creature.heal().
+     *
+     * @param index      the creature index
+     * @param healAmount the amount of health to restore (must be non-negative)
+     * @throws HealingException if healAmount is negative
+     */
+    public void heal(final int index,
+                     final int healAmount)
+    {
+        int current;
+        int next;
+
+        if (healAmount < MIN_AMOUNT)
+        {
+            throw new HealingException("Healing cannot be negative: " + healAmount);
+        }
+
+        do
+        {
+            current = states.get(index);
+            next = PackedCreatureState.withHealth(current,
+                    CombatRules.healthAfterHeal(PackedCreatureState.health(current), healAmount));
+        }
+        while (!states.compareAndSet(index, current, next));
+    }
+
+    /**
+     * Restores a Dragon's firepower or an Elf's mana, capped at the type's maximum,
+     * the same way as restoreFirePower() and restoreMana().
+     * Orcs and plain Creatures have no restore operation, so they are rejected.
+     *
+     * @param index  the creature index
+     * @param amount the amount to restore (must be non-negative)
+     * @throws IllegalArgumentException if amount is negative or the creature is not a Dragon or an Elf
+     */
+    public void restoreResource(final int index,
+                                final int amount)
+    {
+        final CreatureType type;
+        int current;
+        int next;
+
+        if (amount < MIN_AMOUNT)
+        {
+            throw new IllegalArgumentException("Restore amount cannot be negative: " + amount);
+        }
+
+        type = PackedCreatureState.type(states.get(index));
+
+        if (!CombatRules.canRestore(type))
+        {
+            throw new IllegalArgumentException("Only a Dragon or an Elf can restore its resource: " + type);
+        }
+
+        do
+        {
+            current = states.get(index);
+            next = PackedCreatureState.withResource(current,
+                    CombatRules.resourceAfterRestore(type, PackedCreatureState.resource(current), amount));
+        }
+        while (!states.compareAndSet(index, current, next));
+    }
+
+    /**
+     * Makes one creature attack another with its breatheFire(), castSpell(), or berserk() rules.
+     * The resource is spent atomically first; the damage is then applied atomically to the target.
+     * Other threads may observe the short moment between the two updates.
+     *
+     * @param attacker the attacking creature index
+     * @param target   the target creature index
+     * @return the damage dealt, or zero if the attacker did not have enough resource
+     */
+    public int attack(final int attacker,
+                      final int target)
+    {
+        final int damage;
+        int current;
+        int resourceAfter;
+        CreatureType type;
+
+        do
+        {
+            current = states.get(attacker);
+            type = PackedCreatureState.type(current);
+
+            if (!CombatRules.canAttack(type, PackedCreatureState.resource(current)))
+            {
+                return 0;
+            }
+
+            resourceAfter = CombatRules.resourceAfterAttack(type, PackedCreatureState.resource(current));
+        }
+        while (!states.compareAndSet(attacker, current, PackedCreatureState.withResource(current, resourceAfter)));
+
+        damage = CombatRules.attackDamage(type, resourceAfter);
+        takeDamage(target, damage);
+
+        return damage;
+    }
+}
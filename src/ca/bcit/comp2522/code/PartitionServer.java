@@ -0,0 +1,344 @@
+package ca.bcit.comp2522.code;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * One partition of a PartitionedSimulation, normally running in its own JVM.
+ * Holds a share of the creatures and answers batched binary requests from the coordinator
+ * over a single non-blocking loopback connection.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class PartitionServer
+{
+    static final byte SPAWN = 1;
+    static final byte SPEND = 2;
+    static final byte DAMAGE = 3;
+    static final byte STATE = 4;
+    static final byte SHUTDOWN = 5;
+    static final byte OK = 6;
+    static final byte ERROR = 7;
+
+    static final String PORT_PREFIX = "PORT ";
+
+    private static final int PARTITION_ARG = 0;
+
+    private final int partition;
+    private final List<Creature> creatures;
+    private final DamageProbe probe;
+
+    /**
+     * Constructs an empty PartitionServer.
+     *
+     * @param partition the partition number, used in creature names
+     */
+    public PartitionServer(final int partition)
+    {
+        this.partition = partition;
+        this.creatures = new ArrayList<>();
+        this.probe = new DamageProbe();
+    }
+
+    /**
+     * Program entry point.
+     * Listens on a free loopback port, prints it as "PORT n", and serves one coordinator until shut down.
+     *
+     * @param args the partition number
+     * @throws IOException if the connection fails
+     */
+    public static void main(final String[] args) throws IOException
+    {
+        final PartitionServer server;
+
+        server = new PartitionServer(Integer.parseInt(args[PARTITION_ARG]));
+
+        try (ServerSocketChannel listener = ServerSocketChannel.open())
+        {
+            final SocketChannel connection;
+
+            listener.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+            System.out.println(PORT_PREFIX + ((InetSocketAddress)listener.getLocalAddress()).getPort());
+            System.out.flush();
+
+            connection = listener.accept();
+            server.serve(new FrameChannel(connection));
+        }
+    }
+
+    /**
+     * Answers requests on the connection until a SHUTDOWN request or the connection closes.
+     *
+     * @param connection the coordinator connection
+     * @throws IOException if the connection fails
+     */
+    void serve(final FrameChannel connection) throws IOException
+    {
+        try (Selector selector = Selector.open())
+        {
+            final SelectionKey key;
+            boolean running;
+
+            key = connection.channel().register(selector, SelectionKey.OP_READ);
+            running = true;
+
+            while (running)
+            {
+                final ByteBuffer request;
+
+                selector.select();
+                selector.selectedKeys().clear();
+
+                if (key.isWritable())
+                {
+                    if (connection.flush())
+                    {
+                        key.interestOps(SelectionKey.OP_READ);
+                    }
+                    continue;
+                }
+
+                request = connection.readFrame();
+
+                if (request != null)
+                {
+                    running = handle(request, connection);
+
+                    if (!connection.flush())
+                    {
+                        key.interestOps(SelectionKey.OP_WRITE);
+                    }
+                }
+            }
+
+            while (!connection.flush())
+            {
+                selector.select();
+                selector.selectedKeys().clear();
+            }
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+
+    /**
+     * Handles one request and prepares the reply frame.
+     *
+     * @param request    the request payload
+     * @param connection the connection to reply on
+     * @return false if the request was SHUTDOWN, true otherwise
+     */
+    private boolean handle(final ByteBuffer request,
+                           final FrameChannel connection)
+    {
+        final byte opcode;
+
+        opcode = request.get();
+
+        try
+        {
+            switch (opcode)
+            {
+                case SPAWN:
+                    spawn(request);
+                    connection.startFrame(1).put(OK);
+                    break;
+                case SPEND:
+                    spend(request, connection);
+                    break;
+                case DAMAGE:
+                    damage(request);
+                    connection.startFrame(1).put(OK);
+                    break;
+                case STATE:
+                    state(connection);
+                    break;
+                case SHUTDOWN:
+                    connection.startFrame(1).put(OK);
+                    connection.endFrame();
+                    return false;
+                default:
+                    throw new IllegalArgumentException("Unknown opcode: " + opcode);
+            }
+        }
+        catch (final RuntimeException e)
+        {
+            final byte[] message;
+
+            message = String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8);
+            connection.startFrame(1 + message.length).put(ERROR).put(message);
+        }
+
+        connection.endFrame();
+
+        return true;
+    }
+
+    /**
+     * Creates the creatures described in a SPAWN request.
+     * Each entry is a type ordinal, date of birth in milliseconds, health, and resource.
+     * Either every creature in the request is added or, if any entry is invalid, none is,
+     * so creature indexes stay in step with the coordinator's ids.
+     *
+     * @param request the request payload after the opcode
+     */
+    private void spawn(final ByteBuffer request)
+    {
+        final int count;
+        final CreatureType[] types;
+        final List<Creature> spawned;
+
+        count = request.getInt();
+        types = CreatureType.values();
+        spawned = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            final CreatureType type;
+            final Date dateOfBirth;
+            final int health;
+            final int resource;
+            final String name;
+
+            type = types[request.get()];
+            dateOfBirth = new Date(request.getLong());
+            health = request.getInt();
+            resource = request.getInt();
+            name = "P" + partition + "-" + (creatures.size() + i);
+
+            spawned.add(type.create(name, dateOfBirth, health, resource));
+        }
+
+        creatures.addAll(spawned);
+    }
+
+    /**
+     * Runs the attacks in a SPEND request against the damage probe and replies with the damage of each.
+     * A failed attack, or one by a creature that cannot attack, deals zero damage.
+     *
+     * @param request    the request payload after the opcode: a count and that many attacker indexes
+     * @param connection the connection to reply on
+     */
+    private void spend(final ByteBuffer request,
+                       final FrameChannel connection)
+    {
+        final int count;
+        final ByteBuffer reply;
+
+        count = request.getInt();
+        reply = connection.startFrame(1 + Integer.BYTES * (count + 1));
+        reply.put(OK).putInt(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            reply.putInt(attack(creatures.get(request.getInt())));
+        }
+    }
+
+    /**
+     * Applies the damage in a DAMAGE request with takeDamage().
+     *
+     * @param request the request payload after the opcode: a count and that many index and damage pairs
+     */
+    private void damage(final ByteBuffer request)
+    {
+        final int count;
+
+        count = request.getInt();
+
+        for (int i = 0; i < count; i++)
+        {
+            final int index;
+
+            index = request.getInt();
+            creatures.get(index).takeDamage(request.getInt());
+        }
+    }
+
+    /**
+     * Replies with the health and resource of every creature, in index order.
+     *
+     * @param connection the connection to reply on
+     */
+    private void state(final FrameChannel connection)
+    {
+        final ByteBuffer reply;
+
+        reply = connection.startFrame(1 + Integer.BYTES * (creatures.size() * 2 + 1));
+        reply.put(OK).putInt(creatures.size());
+
+        for (final Creature creature : creatures)
+        {
+            reply.putInt(creature.getHealth());
+            reply.putInt(CreatureType.resourceOf(creature));
+        }
+    }
+
+    /**
+     * Makes a creature attack the damage probe and returns the damage dealt.
+     *
+     * @param attacker the attacking creature
+     * @return the damage dealt, or zero if the attack failed
+     */
+    private int attack(final Creature attacker)
+    {
+        probe.reset();
+        Attacks.attack(attacker, probe);
+
+        return probe.received;
+    }
+
+    /**
+     * A stand-in target that records the damage of an attack instead of taking it,
+     * so attacks on creatures in other partitions can use the normal attack methods.
+     */
+    private static final class DamageProbe extends Creature
+    {
+        private static final String PROBE_NAME = "remote-target";
+        private static final long PROBE_BIRTH_MILLIS = 0L;
+
+        private int received;
+
+        /**
+         * Constructs a DamageProbe.
+         */
+        private DamageProbe()
+        {
+            super(PROBE_NAME, new Date(PROBE_BIRTH_MILLIS), MAX_HEALTH);
+        }
+
+        /**
+         * Forgets the damage recorded by the previous attack.
+         */
+        private void reset()
+        {
+            received = 0;
+        }
+
+        /**
+         * Records the damage instead of applying it.
+         *
+         * @param damage the damage dealt by the attack
+         */
+        @Override
+        public void takeDamage(final int damage)
+        {
+            received += damage;
+        }
+    }
+}
@@ -0,0 +1,634 @@
+package ca.bcit.comp2522.code;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Splits a creature population across several PartitionServer processes on this machine.
+ * Creature ids are handed out in spawn order and assigned to partitions round-robin.
+ *
+ * <p>Each tick runs in two phases separated by a barrier. First every attacker's partition
+ * spends the attacker's resource and reports the damage; then every target's partition applies
+ * that damage. Because an attack's damage depends only on the attacker, and takeDamage()
+ * only ever lowers health with a floor of zero, the result is identical to applying the same
+ * attacks one after another in a single process.</p>
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class PartitionedSimulation
+{
+    private static final int SPAWN_ENTRY_BYTES = 1 + Long.BYTES + Integer.BYTES * 2;
+    private static final int HEADER_BYTES = 1 + Integer.BYTES;
+
+    private final List<Process> processes;
+    private final FrameChannel[] partitions;
+    private final Selector selector;
+    private final List<List<long[]>> pendingSpawns;
+    private int creatureCount;
+
+    /**
+     * Constructs a PartitionedSimulation over already connected partitions.
+     *
+     * @param processes  the partition processes
+     * @param partitions the connections to the partitions
+     * @throws IOException if the selector cannot be opened
+     */
+    private PartitionedSimulation(final List<Process> processes,
+                                  final FrameChannel[] partitions) throws IOException
+    {
+        this.processes = processes;
+        this.partitions = partitions;
+        this.selector = Selector.open();
+        this.pendingSpawns = new ArrayList<>();
+        this.creatureCount = 0;
+
+        for (final FrameChannel partition : partitions)
+        {
+            partition.channel().register(selector, 0, partition);
+            pendingSpawns.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Starts the specified number of PartitionServer JVMs and connects to each over loopback.
+     * The servers use the same Java installation and class path as this JVM.
+     *
+     * @param partitionCount the number of partitions (must be positive)
+     * @return the connected simulation
+     * @throws IOException if a process cannot be started or connected to
+     * @throws IllegalArgumentException if partitionCount is not positive
+     */
+    public static PartitionedSimulation launch(final int partitionCount) throws IOException
+    {
+        final List<Process> processes;
+        final FrameChannel[] partitions;
+        final String java;
+
+        if (partitionCount <= 0)
+        {
+            throw new IllegalArgumentException("Partition count must be positive: " + partitionCount);
+        }
+
+        processes = new ArrayList<>();
+        partitions = new FrameChannel[partitionCount];
+        java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        try
+        {
+            for (int p = 0; p < partitionCount; p++)
+            {
+                final Process process;
+                final int port;
+                final SocketChannel channel;
+
+                process = new ProcessBuilder(java,
+                        "-cp", System.getProperty("java.class.path"),
+                        PartitionServer.class.getName(),
+                        Integer.toString(p))
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                processes.add(process);
+
+                port = readPort(process);
+                channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+                partitions[p] = new FrameChannel(channel);
+            }
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            for (final Process process : processes)
+            {
+                process.destroyForcibly();
+            }
+
+            throw e;
+        }
+
+        return new PartitionedSimulation(processes, partitions);
+    }
+
+    /**
+     * Adds a creature to the simulation. It is created in its partition at the start of the next tick.
+     * The values are checked here, so an invalid creature is never given an id.
+     *
+     * @param type        the creature type (must not be null)
+     * @param dateOfBirth the creature's date of birth (must not be null or in the future)
+     * @param health      the creature's health
+     * @param resource    the creature's firepower, mana, or rage (ignored for a plain Creature)
+     * @return the creature's id
+     * @throws IllegalArgumentException if type is null or any value is invalid for the type
+     */
+    public int spawn(final CreatureType type,
+                     final Date dateOfBirth,
+                     final int health,
+                     final int resource)
+    {
+        final int id;
+        final int partition;
+
+        if (type == null)
+        {
+            throw new IllegalArgumentException("Type must not be null.");
+        }
+
+        type.validate(dateOfBirth, health, resource);
+
+        id = creatureCount++;
+        partition = partitionOf(id);
+
+        pendingSpawns.get(partition).add(new long[]{type.ordinal(), dateOfBirth.getTime(), health, resource});
+
+        return id;
+    }
+
+    /**
+     * Returns the number of creatures spawned so far.
+     *
+     * @return the creature count
+     */
+    public int size()
+    {
+        return creatureCount;
+    }
+
+    /**
+     * Runs one tick. Attack i is made by creature attackers[i] against creature targets[i],
+     * with the same outcome as calling breatheFire(), castSpell(), or berserk() in that order.
+     * Attacks that fail for lack of resource deal no damage.
+     *
+     * @param attackers the attacking creature ids
+     * @param targets   the target creature ids, the same length as attackers
+     * @throws IOException if a partition connection fails
+     * @throws IllegalArgumentException if the arrays differ in length or an id is out of range
+     */
+    public void tick(final int[] attackers,
+                     final int[] targets) throws IOException
+    {
+        final int[] damage;
+
+        if (attackers.length != targets.length)
+        {
+            throw new IllegalArgumentException("Attackers and targets must have the same length.");
+        }
+
+        for (int i = 0; i < attackers.length; i++)
+        {
+            validateId(attackers[i]);
+            validateId(targets[i]);
+        }
+
+        flushSpawns();
+
+        damage = spendPhase(attackers);
+        damagePhase(targets, damage);
+    }
+
+    /**
+     * Returns the health of every creature, indexed by id.
+     *
+     * @return the health of each creature
+     * @throws IOException if a partition connection fails
+     */
+    public int[] getHealth() throws IOException
+    {
+        return readState(0);
+    }
+
+    /**
+     * Returns the firepower, mana, or rage of every creature, indexed by id.
+     *
+     * @return the resource of each creature
+     * @throws IOException if a partition connection fails
+     */
+    public int[] getResources() throws IOException
+    {
+        return readState(1);
+    }
+
+    /**
+     * Shuts down every partition and waits for the processes to exit.
+     *
+     * @throws IOException if a partition connection fails
+     * @throws InterruptedException if interrupted while waiting for a process
+     */
+    public void close() throws IOException, InterruptedException
+    {
+        try
+        {
+            for (final FrameChannel partition : partitions)
+            {
+                partition.startFrame(1).put(PartitionServer.SHUTDOWN);
+                partition.endFrame();
+            }
+
+            exchange();
+        }
+        finally
+        {
+            selector.close();
+
+            for (final FrameChannel partition : partitions)
+            {
+                partition.close();
+            }
+
+            for (final Process process : processes)
+            {
+                process.waitFor();
+            }
+        }
+    }
+
+    /**
+     * Asks each attacker's partition to spend resources and returns the damage of each attack.
+     *
+     * @param attackers the attacking creature ids
+     * @return the damage dealt by each attack, in the same order
+     * @throws IOException if a partition connection fails
+     */
+    private int[] spendPhase(final int[] attackers) throws IOException
+    {
+        final int[] counts;
+        final int[] damage;
+        final ByteBuffer[] replies;
+
+        counts = new int[partitions.length];
+
+        for (final int attacker : attackers)
+        {
+            counts[partitionOf(attacker)]++;
+        }
+
+        for (int p = 0; p < partitions.length; p++)
+        {
+            partitions[p].startFrame(HEADER_BYTES + Integer.BYTES * counts[p])
+                    .put(PartitionServer.SPEND)
+                    .putInt(counts[p]);
+        }
+
+        for (final int attacker : attackers)
+        {
+            partitions[partitionOf(attacker)].startedFrame().putInt(localIndexOf(attacker));
+        }
+
+        for (final FrameChannel partition : partitions)
+        {
+            partition.endFrame();
+        }
+
+        replies = exchange();
+        damage = new int[attackers.length];
+
+        for (final ByteBuffer reply : replies)
+        {
+            reply.getInt();
+        }
+
+        for (int i = 0; i < attackers.length; i++)
+        {
+            damage[i] = replies[partitionOf(attackers[i])].getInt();
+        }
+
+        return damage;
+    }
+
+    /**
+     * Sends the damage of every attack to each target's partition and waits for them all.
+     *
+     * @param targets the target creature ids
+     * @param damage  the damage of each attack
+     * @throws IOException if a partition connection fails
+     */
+    private void damagePhase(final int[] targets,
+                             final int[] damage) throws IOException
+    {
+        final int[] counts;
+
+        counts = new int[partitions.length];
+
+        for (int i = 0; i < targets.length; i++)
+        {
+            if (damage[i] > 0)
+            {
+                counts[partitionOf(targets[i])]++;
+            }
+        }
+
+        for (int p = 0; p < partitions.length; p++)
+        {
+            partitions[p].startFrame(HEADER_BYTES + Integer.BYTES * 2 * counts[p])
+                    .put(PartitionServer.DAMAGE)
+                    .putInt(counts[p]);
+        }
+
+        for (int i = 0; i < targets.length; i++)
+        {
+            if (damage[i] > 0)
+            {
+                partitions[partitionOf(targets[i])].startedFrame()
+                        .putInt(localIndexOf(targets[i]))
+                        .putInt(damage[i]);
+            }
+        }
+
+        for (final FrameChannel partition : partitions)
+        {
+            partition.endFrame();
+        }
+
+        exchange();
+    }
+
+    /**
+     * Sends any creatures spawned since the last tick to their partitions.
+     *
+     * @throws IOException if a partition connection fails
+     */
+    private void flushSpawns() throws IOException
+    {
+        boolean any;
+
+        any = false;
+
+        for (int p = 0; p < partitions.length; p++)
+        {
+            final List<long[]> spawns;
+            final ByteBuffer frame;
+
+            spawns = pendingSpawns.get(p);
+            frame = partitions[p].startFrame(HEADER_BYTES + SPAWN_ENTRY_BYTES * spawns.size());
+
+            frame.put(PartitionServer.SPAWN).putInt(spawns.size());
+
+            for (final long[] spawn : spawns)
+            {
+                frame.put((byte)spawn[0]).putLong(spawn[1]).putInt((int)spawn[2]).putInt((int)spawn[3]);
+            }
+
+            partitions[p].endFrame();
+            any |= !spawns.isEmpty();
+            spawns.clear();
+        }
+
+        if (any)
+        {
+            exchange();
+        }
+    }
+
+    /**
+     * Reads one column of every partition's state and arranges it by creature id.
+     *
+     * @param column 0 for health, 1 for resource
+     * @return the column values indexed by id
+     * @throws IOException if a partition connection fails
+     */
+    private int[] readState(final int column) throws IOException
+    {
+        final ByteBuffer[] replies;
+        final int[] values;
+
+        flushSpawns();
+
+        for (final FrameChannel partition : partitions)
+        {
+            partition.startFrame(1).put(PartitionServer.STATE);
+            partition.endFrame();
+        }
+
+        replies = exchange();
+        values = new int[creatureCount];
+
+        for (int p = 0; p < partitions.length; p++)
+        {
+            final int count;
+
+            count = replies[p].getInt();
+
+            for (int local = 0; local < count; local++)
+            {
+                final int health;
+                final int resource;
+
+                health = replies[p].getInt();
+                resource = replies[p].getInt();
+                values[local * partitions.length + p] = column == 0 ? health : resource;
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Sends every partition's prepared frame and waits until every partition has replied.
+     * This is the barrier between phases: nothing continues until all replies are in.
+     * If a partition reports an error, the other replies are still read before it is thrown,
+     * so the next exchange does not read a stale frame.
+     *
+     * @return the reply payload of each partition, after its OK status byte
+     * @throws IOException if a partition connection fails or a partition reports an error
+     */
+    private ByteBuffer[] exchange() throws IOException
+    {
+        final ByteBuffer[] replies;
+        IOException failure;
+        int waiting;
+
+        replies = new ByteBuffer[partitions.length];
+        failure = null;
+        waiting = partitions.length;
+
+        for (final FrameChannel partition : partitions)
+        {
+            final SelectionKey key;
+
+            key = partition.channel().keyFor(selector);
+            key.interestOps(partition.flush() ? SelectionKey.OP_READ : SelectionKey.OP_WRITE);
+        }
+
+        while (waiting > 0)
+        {
+            selector.select();
+
+            for (final SelectionKey key : selector.selectedKeys())
+            {
+                final FrameChannel partition;
+
+                partition = (FrameChannel)key.attachment();
+
+                if (key.isWritable())
+                {
+                    if (partition.flush())
+                    {
+                        key.interestOps(SelectionKey.OP_READ);
+                    }
+                }
+                else if (key.isReadable())
+                {
+                    final ByteBuffer reply;
+
+                    reply = partition.readFrame();
+
+                    if (reply != null)
+                    {
+                        final int p;
+
+                        p = indexOf(partition);
+                        key.interestOps(0);
+                        waiting--;
+
+                        try
+                        {
+                            replies[p] = copyReply(reply, p);
+                        }
+                        catch (final IOException e)
+                        {
+                            if (failure == null)
+                            {
+                                failure = e;
+                            }
+                            else
+                            {
+                                failure.addSuppressed(e);
+                            }
+                        }
+                    }
+                }
+            }
+
+            selector.selectedKeys().clear();
+        }
+
+        if (failure != null)
+        {
+            throw failure;
+        }
+
+        return replies;
+    }
+
+    /**
+     * Checks a reply's status and copies its payload, since the channel's frame buffer is reused.
+     *
+     * @param reply     the reply payload
+     * @param partition the partition that sent it
+     * @return the payload after the status byte
+     * @throws IOException if the partition reported an error
+     */
+    private static ByteBuffer copyReply(final ByteBuffer reply,
+                                        final int partition) throws IOException
+    {
+        final byte status;
+        final ByteBuffer copy;
+
+        status = reply.get();
+
+        if (status == PartitionServer.ERROR)
+        {
+            final byte[] message;
+
+            message = new byte[reply.remaining()];
+            reply.get(message);
+
+            throw new IOException("Partition " + partition + " failed: " + new String(message, StandardCharsets.UTF_8));
+        }
+
+        copy = ByteBuffer.allocate(reply.remaining());
+        copy.put(reply);
+        copy.flip();
+
+        return copy;
+    }
+
+    /**
+     * Returns the position of a partition connection in the partitions array.
+     *
+     * @param partition the connection
+     * @return its index
+     */
+    private int indexOf(final FrameChannel partition)
+    {
+        for (int p = 0; p < partitions.length; p++)
+        {
+            if (partitions[p] == partition)
+            {
+                return p;
+            }
+        }
+
+        throw new IllegalStateException("Unknown partition connection.");
+    }
+
+    /**
+     * Returns the partition that owns a creature.
+     *
+     * @param id the creature id
+     * @return the partition index
+     */
+    private int partitionOf(final int id)
+    {
+        return id % partitions.length;
+    }
+
+    /**
+     * Returns a creature's index within its partition.
+     *
+     * @param id the creature id
+     * @return the index within the partition
+     */
+    private int localIndexOf(final int id)
+    {
+        return id / partitions.length;
+    }
+
+    /**
+     * Validates that a creature id has been spawned.
+     *
+     * @param id the id to validate
+     * @throws IllegalArgumentException if id is out of range
+     */
+    private void validateId(final int id)
+    {
+        if (id < 0 || id >= creatureCount)
+        {
+            throw new IllegalArgumentException("Creature id out of range (0.." + (creatureCount - 1) + "): " + id);
+        }
+    }
+
+    /**
+     * Reads the "PORT n" line a PartitionServer prints once it is listening.
+     *
+     * @param process the partition process
+     * @return the port number
+     * @throws IOException if the process exits or prints something else
+     */
+    private static int readPort(final Process process) throws IOException
+    {
+        final BufferedReader output;
+        final String line;
+
+        output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        line = output.readLine();
+
+        if (line == null || !line.startsWith(PartitionServer.PORT_PREFIX))
+        {
+            throw new IOException("Partition did not start: " + line);
+        }
+
+        return Integer.parseInt(line.substring(PartitionServer.PORT_PREFIX.length()).trim());
+    }
+}
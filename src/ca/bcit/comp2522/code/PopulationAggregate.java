@@ -0,0 +1,119 @@
+package ca.bcit.comp2522.code;
+
+/**
+ * The count, sum, minimum, and maximum of one column over the rows that matched a query.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public final class PopulationAggregate
+{
+    private long count;
+    private long sum;
+    private int min;
+    private int max;
+
+    /**
+     * Constructs an empty PopulationAggregate.
+     */
+    PopulationAggregate()
+    {
+        this.count = 0L;
+        this.sum = 0L;
+        this.min = Integer.MAX_VALUE;
+        this.max = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Returns the number of matching rows.
+     *
+     * @return the count
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the column over the matching rows.
+     *
+     * @return the sum, or zero if nothing matched
+     */
+    public long getSum()
+    {
+        return sum;
+    }
+
+    /**
+     * Returns the smallest value of the column over the matching rows.
+     *
+     * @return the minimum, or Integer.MAX_VALUE if nothing matched
+     */
+    public int getMin()
+    {
+        return min;
+    }
+
+    /**
+     * Returns the largest value of the column over the matching rows.
+     *
+     * @return the maximum, or Integer.MIN_VALUE if nothing matched
+     */
+    public int getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Returns the average of the column over the matching rows.
+     *
+     * @return the average, or NaN if nothing matched
+     */
+    public double getAverage()
+    {
+        if (count == 0L)
+        {
+            return Double.NaN;
+        }
+
+        return (double)sum / count;
+    }
+
+    /**
+     * Returns a short description of the aggregate.
+     *
+     * @return the aggregate as a string
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("Count=%d, Sum=%d, Min=%d, Max=%d, Average=%.2f", count, sum, min, max, getAverage());
+    }
+
+    /**
+     * Adds one value.
+     *
+     * @param value the column value of a matching row
+     */
+    void add(final int value)
+    {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds the values of another aggregate to this one.
+     *
+     * @param other the aggregate to merge
+     */
+    void merge(final PopulationAggregate other)
+    {
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+}
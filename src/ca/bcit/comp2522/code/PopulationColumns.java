@@ -0,0 +1,112 @@
+package ca.bcit.comp2522.code;
+
+import java.util.List;
+
+/**
+ * A column-oriented copy of a population's state, for fast filtering and aggregation.
+ * Type, health, resource, and age are each stored in their own primitive array, so a query
+ * reads only the columns it needs, in order. Ages are computed once, when the columns are
+ * built, from each creature's cached birth year and day of year and the cached current date,
+ * using the same rules as Creature.getAgeYears().
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public final class PopulationColumns
+{
+    private final byte[] types;
+    private final int[] health;
+    private final int[] resource;
+    private final int[] ageYears;
+
+    /**
+     * Constructs PopulationColumns from the current state of the specified creatures.
+     *
+     * @param creatures the population (must not be null or contain null)
+     * @throws IllegalArgumentException if creatures is null or contains null
+     */
+    public PopulationColumns(final List<? extends Creature> creatures)
+    {
+        final Today today;
+        final int size;
+
+        if (creatures == null)
+        {
+            throw new IllegalArgumentException("Creatures must not be null.");
+        }
+
+        today = Today.current();
+        size = creatures.size();
+
+        this.types = new byte[size];
+        this.health = new int[size];
+        this.resource = new int[size];
+        this.ageYears = new int[size];
+
+        for (int i = 0; i < size; i++)
+        {
+            final Creature creature;
+
+            creature = creatures.get(i);
+
+            types[i] = (byte)CreatureType.of(creature).ordinal();
+            health[i] = creature.getHealth();
+            resource[i] = CreatureType.resourceOf(creature);
+            ageYears[i] = Creature.calculateAgeYears(today.getYear(),
+                    today.getDayOfYear(),
+                    creature.getBirthYear(),
+                    creature.getBirthDayOfYear());
+        }
+    }
+
+    /**
+     * Returns the number of rows, one per creature.
+     *
+     * @return the population size
+     */
+    public int size()
+    {
+        return types.length;
+    }
+
+    /**
+     * Returns the type of the creature in the specified row.
+     *
+     * @param row the row index
+     * @return the creature type
+     */
+    public CreatureType getType(final int row)
+    {
+        return CreatureType.values()[types[row]];
+    }
+
+    /**
+     * Returns the type ordinals column.
+     *
+     * @return the types, shared with this object
+     */
+    byte[] types()
+    {
+        return types;
+    }
+
+    /**
+     * Returns the column holding the specified attribute.
+     *
+     * @param column the attribute
+     * @return the values, shared with this object
+     */
+    int[] column(final PopulationQuery.Column column)
+    {
+        switch (column)
+        {
+            case HEALTH:
+                return health;
+            case RESOURCE:
+                return resource;
+            default:
+                return ageYears;
+        }
+    }
+}
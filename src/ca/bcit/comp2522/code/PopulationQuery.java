@@ -0,0 +1,347 @@
+package ca.bcit.comp2522.code;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Filters and aggregates a PopulationColumns, for example
+ * "average mana of living Elves older than 5 years":
+ *
+ * <pre>
+ * PopulationQuery.over(columns)
+ *         .ofType(CreatureType.ELF)
+ *         .alive()
+ *         .where(Column.AGE_YEARS, Comparison.GREATER, 5)
+ *         .aggregate(Column.RESOURCE)
+ *         .getAverage();
+ * </pre>
+ *
+ * The conditions are compiled into a single row test over the primitive columns, and the rows
+ * are scanned in parallel in contiguous chunks.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public final class PopulationQuery
+{
+    /**
+     * The columns a query can filter or aggregate on.
+     */
+    public enum Column
+    {
+        HEALTH,
+        RESOURCE,
+        AGE_YEARS
+    }
+
+    /**
+     * How a column value is compared with a constant.
+     */
+    public enum Comparison
+    {
+        LESS,
+        LESS_OR_EQUAL,
+        EQUAL,
+        NOT_EQUAL,
+        GREATER_OR_EQUAL,
+        GREATER
+    }
+
+    private static final int CHUNK_ROWS = 8192;
+    private static final int TYPE_COUNT = CreatureType.values().length;
+
+    private final PopulationColumns columns;
+    private IntPredicate filter;
+    private int typeMask;
+
+    /**
+     * Constructs a query that matches every row.
+     *
+     * @param columns the population to query
+     */
+    private PopulationQuery(final PopulationColumns columns)
+    {
+        this.columns = columns;
+        this.filter = null;
+        this.typeMask = 0;
+    }
+
+    /**
+     * Starts a query over the specified population.
+     *
+     * @param columns the population to query (must not be null)
+     * @return a query that matches every row
+     * @throws IllegalArgumentException if columns is null
+     */
+    public static PopulationQuery over(final PopulationColumns columns)
+    {
+        if (columns == null)
+        {
+            throw new IllegalArgumentException("Columns must not be null.");
+        }
+
+        return new PopulationQuery(columns);
+    }
+
+    /**
+     * Restricts the query to the specified type. Calling it again allows several types.
+     *
+     * @param type the type to include (must not be null)
+     * @return this query
+     * @throws IllegalArgumentException if type is null
+     */
+    public PopulationQuery ofType(final CreatureType type)
+    {
+        if (type == null)
+        {
+            throw new IllegalArgumentException("Type must not be null.");
+        }
+
+        typeMask |= 1 << type.ordinal();
+
+        return this;
+    }
+
+    /**
+     * Restricts the query to living creatures, matching Creature.isAlive().
+     *
+     * @return this query
+     */
+    public PopulationQuery alive()
+    {
+        return where(Column.HEALTH, Comparison.GREATER, Creature.DEAD_HEALTH);
+    }
+
+    /**
+     * Restricts the query to rows whose column compares as specified with a value.
+     *
+     * @param column     the column to test (must not be null)
+     * @param comparison the comparison (must not be null)
+     * @param value      the value to compare with
+     * @return this query
+     * @throws IllegalArgumentException if column or comparison is null
+     */
+    public PopulationQuery where(final Column column,
+                                 final Comparison comparison,
+                                 final int value)
+    {
+        final IntPredicate condition;
+
+        if (column == null || comparison == null)
+        {
+            throw new IllegalArgumentException("Column and comparison must not be null.");
+        }
+
+        condition = compile(columns.column(column), comparison, value);
+
+        if (filter == null)
+        {
+            filter = condition;
+        }
+        else
+        {
+            filter = filter.and(condition);
+        }
+
+        return this;
+    }
+
+    /**
+     * Counts the matching rows.
+     *
+     * @return the number of matching creatures
+     */
+    public long count()
+    {
+        return aggregate(Column.HEALTH).getCount();
+    }
+
+    /**
+     * Aggregates a column over the matching rows.
+     *
+     * @param column the column to aggregate (must not be null)
+     * @return the count, sum, minimum, and maximum of the column
+     * @throws IllegalArgumentException if column is null
+     */
+    public PopulationAggregate aggregate(final Column column)
+    {
+        final PopulationAggregate total;
+
+        total = new PopulationAggregate();
+
+        for (final PopulationAggregate byType : scan(column))
+        {
+            total.merge(byType);
+        }
+
+        return total;
+    }
+
+    /**
+     * Aggregates a column over the matching rows, separately for each type.
+     * Types with no matching rows are left out.
+     *
+     * @param column the column to aggregate (must not be null)
+     * @return the aggregate for each type with at least one match
+     * @throws IllegalArgumentException if column is null
+     */
+    public Map<CreatureType, PopulationAggregate> aggregateByType(final Column column)
+    {
+        final PopulationAggregate[] byType;
+        final Map<CreatureType, PopulationAggregate> result;
+
+        byType = scan(column);
+        result = new EnumMap<>(CreatureType.class);
+
+        for (int t = 0; t < TYPE_COUNT; t++)
+        {
+            if (byType[t].getCount() > 0L)
+            {
+                result.put(CreatureType.values()[t], byType[t]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Scans every row in parallel chunks and aggregates the column by type.
+     *
+     * @param column the column to aggregate
+     * @return one aggregate per type ordinal
+     * @throws IllegalArgumentException if column is null
+     */
+    private PopulationAggregate[] scan(final Column column)
+    {
+        final int[] values;
+        final byte[] types;
+        final int mask;
+        final IntPredicate rowFilter;
+        final int chunks;
+
+        if (column == null)
+        {
+            throw new IllegalArgumentException("Column must not be null.");
+        }
+
+        values = columns.column(column);
+        types = columns.types();
+        mask = typeMask == 0 ? -1 : typeMask;
+        rowFilter = filter == null ? row -> true : filter;
+        chunks = (columns.size() + CHUNK_ROWS - 1) / CHUNK_ROWS;
+
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> scanChunk(chunk, values, types, mask, rowFilter))
+                .reduce(PopulationQuery::mergeByType)
+                .orElseGet(PopulationQuery::emptyByType);
+    }
+
+    /**
+     * Aggregates one contiguous chunk of rows.
+     *
+     * @param chunk     the chunk number
+     * @param values    the column being aggregated
+     * @param types     the type ordinals column
+     * @param mask      the bit mask of allowed type ordinals
+     * @param rowFilter the compiled conditions
+     * @return one aggregate per type ordinal for this chunk
+     */
+    private PopulationAggregate[] scanChunk(final int chunk,
+                                            final int[] values,
+                                            final byte[] types,
+                                            final int mask,
+                                            final IntPredicate rowFilter)
+    {
+        final PopulationAggregate[] byType;
+        final int from;
+        final int to;
+
+        byType = emptyByType();
+        from = chunk * CHUNK_ROWS;
+        to = Math.min(from + CHUNK_ROWS, columns.size());
+
+        for (int row = from; row < to; row++)
+        {
+            final int type;
+
+            type = types[row];
+
+            if ((mask & (1 << type)) != 0 && rowFilter.test(row))
+            {
+                byType[type].add(values[row]);
+            }
+        }
+
+        return byType;
+    }
+
+    /**
+     * Compiles one condition into a row test that reads the column array directly.
+     *
+     * @param values     the column to test
+     * @param comparison the comparison
+     * @param value      the value to compare with
+     * @return the row test
+     */
+    private static IntPredicate compile(final int[] values,
+                                        final Comparison comparison,
+                                        final int value)
+    {
+        switch (comparison)
+        {
+            case LESS:
+                return row -> values[row] < value;
+            case LESS_OR_EQUAL:
+                return row -> values[row] <= value;
+            case EQUAL:
+                return row -> values[row] == value;
+            case NOT_EQUAL:
+                return row -> values[row] != value;
+            case GREATER_OR_EQUAL:
+                return row -> values[row] >= value;
+            default:
+                return row -> values[row] > value;
+        }
+    }
+
+    /**
+     * Merges two per-type aggregate arrays into the first.
+     *
+     * @param into  the array to merge into
+     * @param other the array to merge from
+     * @return the merged array
+     */
+    private static PopulationAggregate[] mergeByType(final PopulationAggregate[] into,
+                                                     final PopulationAggregate[] other)
+    {
+        for (int t = 0; t < TYPE_COUNT; t++)
+        {
+            into[t].merge(other[t]);
+        }
+
+        return into;
+    }
+
+    /**
+     * Returns one empty aggregate per type ordinal.
+     *
+     * @return the empty aggregates
+     */
+    private static PopulationAggregate[] emptyByType()
+    {
+        final PopulationAggregate[] byType;
+
+        byType = new PopulationAggregate[TYPE_COUNT];
+
+        for (int t = 0; t < TYPE_COUNT; t++)
+        {
+            byType[t] = new PopulationAggregate();
+        }
+
+        return byType;
+    }
+}
@@ -0,0 +1,1014 @@
+package ca.bcit.comp2522.code;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Gives creatures a position and finds nearby creatures with a uniform spatial hash grid.
+ * The world is divided into square cells; each creature is stored in the cell holding its
+ * position, so range and nearest-neighbour queries only look at nearby cells.
+ * Cells are found through a hash table keyed by primitive longs, so probing a cell allocates nothing.
+ * Dead creatures stay in the grid but are never returned by a query.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class SpatialGrid
+{
+    private static final double DRAGON_ATTACK_RANGE = 30.0;
+    private static final double ELF_ATTACK_RANGE = 50.0;
+    private static final double ORC_ATTACK_RANGE = 5.0;
+    private static final double NO_ATTACK_RANGE = 0.0;
+
+    private static final int CELL_BITS = 32;
+    private static final long CELL_MASK = 0xFFFFFFFFL;
+
+    private static final double UNLIMITED_DISTANCE = Double.POSITIVE_INFINITY;
+
+    private final double cellSize;
+    private final CellMap cells;
+    private final Map<Creature, Entry> entries;
+    private int minCellX;
+    private int maxCellX;
+    private int minCellY;
+    private int maxCellY;
+    private boolean boundsStale;
+
+    /**
+     * Constructs an empty SpatialGrid.
+     * A cell size close to the most common query range gives the best performance.
+     *
+     * @param cellSize the width and height of each cell (must be positive)
+     * @throws IllegalArgumentException if cellSize is not positive
+     */
+    public SpatialGrid(final double cellSize)
+    {
+        if (!(cellSize > 0.0))
+        {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+
+        this.cellSize = cellSize;
+        this.cells = new CellMap();
+        this.entries = new IdentityHashMap<>();
+        this.minCellX = Integer.MAX_VALUE;
+        this.maxCellX = Integer.MIN_VALUE;
+        this.minCellY = Integer.MAX_VALUE;
+        this.maxCellY = Integer.MIN_VALUE;
+        this.boundsStale = false;
+    }
+
+    /**
+     * Returns how far a creature can reach with breatheFire(), castSpell(), or berserk().
+     *
+     * @param creature the attacking creature (must not be null)
+     * @return the attack range, or zero for a creature that cannot attack
+     * @throws IllegalArgumentException if creature is null
+     */
+    public static double attackRange(final Creature creature)
+    {
+        switch (CreatureType.of(creature))
+        {
+            case DRAGON:
+                return DRAGON_ATTACK_RANGE;
+            case ELF:
+                return ELF_ATTACK_RANGE;
+            case ORC:
+                return ORC_ATTACK_RANGE;
+            default:
+                return NO_ATTACK_RANGE;
+        }
+    }
+
+    /**
+     * Places a creature at the specified position, adding it if it is not already in the grid.
+     * Moving within the same cell only updates the stored position.
+     *
+     * @param creature the creature to place (must not be null)
+     * @param x        the x coordinate
+     * @param y        the y coordinate
+     * @throws IllegalArgumentException if creature is null
+     */
+    public void place(final Creature creature,
+                      final double x,
+                      final double y)
+    {
+        final Entry existing;
+        final long key;
+
+        if (creature == null)
+        {
+            throw new IllegalArgumentException("Creature must not be null.");
+        }
+
+        existing = entries.get(creature);
+        key = cellKey(cellOf(x), cellOf(y));
+
+        if (existing == null)
+        {
+            final Entry entry;
+
+            entry = new Entry(creature);
+            entries.put(creature, entry);
+            entry.x = x;
+            entry.y = y;
+            addToCell(entry, key);
+        }
+        else
+        {
+            existing.x = x;
+            existing.y = y;
+
+            if (existing.cellKey != key)
+            {
+                removeFromCell(existing);
+                addToCell(existing, key);
+            }
+        }
+    }
+
+    /**
+     * Removes a creature from the grid.
+     *
+     * @param creature the creature to remove
+     * @return true if the creature was in the grid, false otherwise
+     */
+    public boolean remove(final Creature creature)
+    {
+        final Entry entry;
+
+        entry = entries.remove(creature);
+
+        if (entry == null)
+        {
+            return false;
+        }
+
+        removeFromCell(entry);
+
+        return true;
+    }
+
+    /**
+     * Checks if a creature has been placed in the grid.
+     *
+     * @param creature the creature to check
+     * @return true if the creature has a position, false otherwise
+     */
+    public boolean contains(final Creature creature)
+    {
+        return entries.containsKey(creature);
+    }
+
+    /**
+     * Returns the x coordinate of a creature.
+     *
+     * @param creature the creature (must be in the grid)
+     * @return the x coordinate
+     * @throws IllegalArgumentException if the creature is not in the grid
+     */
+    public double getX(final Creature creature)
+    {
+        return entryOf(creature).x;
+    }
+
+    /**
+     * Returns the y coordinate of a creature.
+     *
+     * @param creature the creature (must be in the grid)
+     * @return the y coordinate
+     * @throws IllegalArgumentException if the creature is not in the grid
+     */
+    public double getY(final Creature creature)
+    {
+        return entryOf(creature).y;
+    }
+
+    /**
+     * Returns the number of creatures in the grid, living or dead.
+     *
+     * @return the creature count
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns every living creature within the specified distance of a point.
+     * If the cells covering the range outnumber the occupied cells, every occupied cell is
+     * scanned once instead, so a wide range over a spread-out grid costs no more than its own size.
+     *
+     * @param x     the x coordinate of the centre
+     * @param y     the y coordinate of the centre
+     * @param range the maximum distance (inclusive)
+     * @return the living creatures in range, in no particular order
+     */
+    public List<Creature> withinRange(final double x,
+                                      final double y,
+                                      final double range)
+    {
+        final List<Creature> found;
+        final double rangeSquared;
+        final int fromX;
+        final int toX;
+        final int fromY;
+        final int toY;
+
+        refreshBounds();
+
+        found = new ArrayList<>();
+        rangeSquared = range * range;
+        fromX = Math.max(cellOf(x - range), minCellX);
+        toX = Math.min(cellOf(x + range), maxCellX);
+        fromY = Math.max(cellOf(y - range), minCellY);
+        toY = Math.min(cellOf(y + range), maxCellY);
+
+        if (fromX > toX || fromY > toY)
+        {
+            return found;
+        }
+
+        if (((long)toX - fromX + 1L) * ((long)toY - fromY + 1L) > cells.size())
+        {
+            for (int slot = 0; slot < cells.capacity(); slot++)
+            {
+                final List<Entry> cell;
+
+                cell = cells.valueAt(slot);
+
+                if (cell != null)
+                {
+                    addInRange(cell, x, y, rangeSquared, found);
+                }
+            }
+
+            return found;
+        }
+
+        for (int cx = fromX; cx <= toX; cx++)
+        {
+            for (int cy = fromY; cy <= toY; cy++)
+            {
+                final List<Entry> cell;
+
+                cell = cells.get(cellKey(cx, cy));
+
+                if (cell != null)
+                {
+                    addInRange(cell, x, y, rangeSquared, found);
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Returns up to k living creatures closest to a point, nearest first.
+     *
+     * @param x       the x coordinate of the point
+     * @param y       the y coordinate of the point
+     * @param k       the maximum number of creatures to return
+     * @param exclude a creature to leave out, such as the one asking, or null
+     * @return the nearest living creatures, nearest first
+     */
+    public List<Creature> nearest(final double x,
+                                  final double y,
+                                  final int k,
+                                  final Creature exclude)
+    {
+        return nearest(x, y, k, exclude, UNLIMITED_DISTANCE);
+    }
+
+    /**
+     * Returns up to k living creatures within a distance of a point, nearest first.
+     * Rings of cells are searched outward from the point's cell, never beyond maxDistance or the
+     * occupied cells. If the rings would probe more cells than are occupied, every occupied cell
+     * is scanned once instead, so a sparse or mostly dead grid costs no more than its own size.
+     *
+     * @param x           the x coordinate of the point
+     * @param y           the y coordinate of the point
+     * @param k           the maximum number of creatures to return
+     * @param exclude     a creature to leave out, or null
+     * @param maxDistance the farthest a returned creature may be (inclusive)
+     * @return the nearest living creatures, nearest first
+     */
+    private List<Creature> nearest(final double x,
+                                   final double y,
+                                   final int k,
+                                   final Creature exclude,
+                                   final double maxDistance)
+    {
+        final PriorityQueue<Candidate> best;
+        final double maxDistanceSquared;
+        final int centreX;
+        final int centreY;
+        final List<Creature> result;
+        long maxRing;
+        long probed;
+
+        result = new ArrayList<>();
+
+        if (k <= 0 || entries.isEmpty() || maxDistance < 0.0)
+        {
+            return result;
+        }
+
+        refreshBounds();
+
+        best = new PriorityQueue<>(k, (a, b) -> Double.compare(b.distanceSquared, a.distanceSquared));
+        maxDistanceSquared = maxDistance * maxDistance;
+        centreX = cellOf(x);
+        centreY = cellOf(y);
+        maxRing = Math.max(Math.max((long)centreX - minCellX, (long)maxCellX - centreX),
+                Math.max((long)centreY - minCellY, (long)maxCellY - centreY));
+        probed = 0L;
+
+        if (maxDistance != UNLIMITED_DISTANCE)
+        {
+            maxRing = Math.min(maxRing, (long)Math.ceil(maxDistance / cellSize));
+        }
+
+        for (int ring = 0; ring <= maxRing; ring++)
+        {
+            final long ringCells;
+            final double reach;
+
+            ringCells = ring == 0 ? 1L : 8L * ring;
+
+            if (probed + ringCells > cells.size())
+            {
+                best.clear();
+                scanAll(x, y, k, exclude, maxDistanceSquared, best);
+                break;
+            }
+
+            scanRing(centreX, centreY, ring, x, y, k, exclude, maxDistanceSquared, best);
+            probed += ringCells;
+
+            reach = ring * cellSize;
+
+            if (best.size() == k && best.peek().distanceSquared <= reach * reach)
+            {
+                break;
+            }
+        }
+
+        while (!best.isEmpty())
+        {
+            result.add(0, best.poll().creature);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the closest living creature that the attacker can reach with its attack range.
+     * Only the cells within the attack range are searched.
+     *
+     * @param attacker the attacking creature (must be in the grid)
+     * @return the nearest living creature in range, or null if there is none
+     * @throws IllegalArgumentException if the attacker is not in the grid
+     */
+    public Creature nearestTarget(final Creature attacker)
+    {
+        final Entry entry;
+        final List<Creature> nearest;
+
+        entry = entryOf(attacker);
+        nearest = nearest(entry.x, entry.y, 1, attacker, attackRange(attacker));
+
+        if (nearest.isEmpty())
+        {
+            return null;
+        }
+
+        return nearest.get(0);
+    }
+
+    /**
+     * Checks if the target is within the attacker's attack range.
+     *
+     * @param attacker the attacking creature (must be in the grid)
+     * @param target   the target creature (must be in the grid)
+     * @return true if the target can be reached, false otherwise
+     * @throws IllegalArgumentException if either creature is not in the grid
+     */
+    public boolean inRange(final Creature attacker,
+                           final Creature target)
+    {
+        final Entry from;
+        final double range;
+
+        from = entryOf(attacker);
+        range = attackRange(attacker);
+
+        return entryOf(target).distanceSquared(from.x, from.y) <= range * range;
+    }
+
+    /**
+     * Offers every living creature in the cells on one ring around the centre cell to the candidate heap.
+     *
+     * @param centreX the centre cell x
+     * @param centreY the centre cell y
+     * @param ring    the ring distance in cells (0 is the centre cell itself)
+     * @param x       the query x coordinate
+     * @param y       the query y coordinate
+     * @param k                  the maximum heap size
+     * @param exclude            the creature to leave out, or null
+     * @param maxDistanceSquared the squared distance beyond which creatures are ignored
+     * @param best               the heap of the k closest candidates, farthest on top
+     */
+    private void scanRing(final int centreX,
+                          final int centreY,
+                          final int ring,
+                          final double x,
+                          final double y,
+                          final int k,
+                          final Creature exclude,
+                          final double maxDistanceSquared,
+                          final PriorityQueue<Candidate> best)
+    {
+        for (int cx = centreX - ring; cx <= centreX + ring; cx++)
+        {
+            final boolean edgeColumn;
+            final int step;
+
+            edgeColumn = cx == centreX - ring || cx == centreX + ring;
+            step = edgeColumn ? 1 : Math.max(ring * 2, 1);
+
+            for (int cy = centreY - ring; cy <= centreY + ring; cy += step)
+            {
+                final List<Entry> cell;
+
+                cell = cells.get(cellKey(cx, cy));
+
+                if (cell != null)
+                {
+                    offerAll(cell, x, y, k, exclude, maxDistanceSquared, best);
+                }
+            }
+        }
+    }
+
+    /**
+     * Offers every living creature in every occupied cell to the candidate heap.
+     *
+     * @param x                  the query x coordinate
+     * @param y                  the query y coordinate
+     * @param k                  the maximum heap size
+     * @param exclude            the creature to leave out, or null
+     * @param maxDistanceSquared the squared distance beyond which creatures are ignored
+     * @param best               the heap of the k closest candidates, farthest on top
+     */
+    private void scanAll(final double x,
+                         final double y,
+                         final int k,
+                         final Creature exclude,
+                         final double maxDistanceSquared,
+                         final PriorityQueue<Candidate> best)
+    {
+        for (int slot = 0; slot < cells.capacity(); slot++)
+        {
+            final List<Entry> cell;
+
+            cell = cells.valueAt(slot);
+
+            if (cell != null)
+            {
+                offerAll(cell, x, y, k, exclude, maxDistanceSquared, best);
+            }
+        }
+    }
+
+    /**
+     * Adds every living creature in a cell that is within range of a point.
+     *
+     * @param cell         the creatures in one cell
+     * @param x            the x coordinate of the centre
+     * @param y            the y coordinate of the centre
+     * @param rangeSquared the squared maximum distance (inclusive)
+     * @param found        the list the creatures in range are added to
+     */
+    private static void addInRange(final List<Entry> cell,
+                                   final double x,
+                                   final double y,
+                                   final double rangeSquared,
+                                   final List<Creature> found)
+    {
+        for (final Entry entry : cell)
+        {
+            if (entry.creature.isAlive() && entry.distanceSquared(x, y) <= rangeSquared)
+            {
+                found.add(entry.creature);
+            }
+        }
+    }
+
+    /**
+     * Offers every living creature in one cell to the candidate heap.
+     *
+     * @param cell               the cell's entries
+     * @param x                  the query x coordinate
+     * @param y                  the query y coordinate
+     * @param k                  the maximum heap size
+     * @param exclude            the creature to leave out, or null
+     * @param maxDistanceSquared the squared distance beyond which creatures are ignored
+     * @param best               the heap of the k closest candidates, farthest on top
+     */
+    private static void offerAll(final List<Entry> cell,
+                                 final double x,
+                                 final double y,
+                                 final int k,
+                                 final Creature exclude,
+                                 final double maxDistanceSquared,
+                                 final PriorityQueue<Candidate> best)
+    {
+        for (final Entry entry : cell)
+        {
+            if (entry.creature != exclude && entry.creature.isAlive())
+            {
+                final double distanceSquared;
+
+                distanceSquared = entry.distanceSquared(x, y);
+
+                if (distanceSquared <= maxDistanceSquared)
+                {
+                    offer(best, k, entry.creature, distanceSquared);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a candidate to the heap if it is among the k closest so far.
+     *
+     * @param best            the heap of the k closest candidates, farthest on top
+     * @param k               the maximum heap size
+     * @param creature        the candidate creature
+     * @param distanceSquared the squared distance to the candidate
+     */
+    private static void offer(final PriorityQueue<Candidate> best,
+                              final int k,
+                              final Creature creature,
+                              final double distanceSquared)
+    {
+        if (best.size() < k)
+        {
+            best.add(new Candidate(creature, distanceSquared));
+        }
+        else if (distanceSquared < best.peek().distanceSquared)
+        {
+            best.poll();
+            best.add(new Candidate(creature, distanceSquared));
+        }
+    }
+
+    /**
+     * Adds an entry to the cell with the specified key and widens the occupied cell bounds.
+     *
+     * @param entry the entry to add
+     * @param key   the cell key
+     */
+    private void addToCell(final Entry entry,
+                           final long key)
+    {
+        final int cx;
+        final int cy;
+        List<Entry> cell;
+
+        cell = cells.get(key);
+
+        if (cell == null)
+        {
+            cell = new ArrayList<>();
+            cells.put(key, cell);
+        }
+
+        entry.cellKey = key;
+        entry.slot = cell.size();
+        cell.add(entry);
+
+        cx = (int)(key >> CELL_BITS);
+        cy = (int)key;
+        minCellX = Math.min(minCellX, cx);
+        maxCellX = Math.max(maxCellX, cx);
+        minCellY = Math.min(minCellY, cy);
+        maxCellY = Math.max(maxCellY, cy);
+    }
+
+    /**
+     * Removes an entry from its cell in constant time by moving the cell's last entry into its slot.
+     * If that empties a cell on the edge of the occupied bounds, the bounds are recomputed before the next query.
+     *
+     * @param entry the entry to remove
+     */
+    private void removeFromCell(final Entry entry)
+    {
+        final List<Entry> cell;
+        final Entry last;
+
+        cell = cells.get(entry.cellKey);
+        last = cell.remove(cell.size() - 1);
+
+        if (last != entry)
+        {
+            cell.set(entry.slot, last);
+            last.slot = entry.slot;
+        }
+
+        if (cell.isEmpty())
+        {
+            final int cx;
+            final int cy;
+
+            cells.remove(entry.cellKey);
+
+            cx = (int)(entry.cellKey >> CELL_BITS);
+            cy = (int)entry.cellKey;
+            boundsStale |= cx == minCellX || cx == maxCellX || cy == minCellY || cy == maxCellY;
+        }
+    }
+
+    /**
+     * Shrinks the occupied cell bounds to the cells still in use, if a cell on the edge was emptied.
+     */
+    private void refreshBounds()
+    {
+        if (!boundsStale)
+        {
+            return;
+        }
+
+        minCellX = Integer.MAX_VALUE;
+        maxCellX = Integer.MIN_VALUE;
+        minCellY = Integer.MAX_VALUE;
+        maxCellY = Integer.MIN_VALUE;
+
+        for (int slot = 0; slot < cells.capacity(); slot++)
+        {
+            if (cells.valueAt(slot) != null)
+            {
+                final long key;
+                final int cx;
+                final int cy;
+
+                key = cells.keyAt(slot);
+                cx = (int)(key >> CELL_BITS);
+                cy = (int)key;
+                minCellX = Math.min(minCellX, cx);
+                maxCellX = Math.max(maxCellX, cx);
+                minCellY = Math.min(minCellY, cy);
+                maxCellY = Math.max(maxCellY, cy);
+            }
+        }
+
+        boundsStale = false;
+    }
+
+    /**
+     * Returns the grid entry of a creature.
+     *
+     * @param creature the creature to look up
+     * @return the creature's entry
+     * @throws IllegalArgumentException if the creature is not in the grid
+     */
+    private Entry entryOf(final Creature creature)
+    {
+        final Entry entry;
+
+        entry = entries.get(creature);
+
+        if (entry == null)
+        {
+            throw new IllegalArgumentException("Creature is not in the grid: " + creature);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Returns the cell coordinate holding the specified position coordinate.
+     *
+     * @param coordinate the x or y coordinate
+     * @return the cell coordinate
+     */
+    private int cellOf(final double coordinate)
+    {
+        return (int)Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * Combines two cell coordinates into a single map key.
+     *
+     * @param cx the cell x coordinate
+     * @param cy the cell y coordinate
+     * @return the cell key
+     */
+    private static long cellKey(final int cx,
+                                final int cy)
+    {
+        return ((long)cx << CELL_BITS) | (cy & CELL_MASK);
+    }
+
+    /**
+     * An open-addressing hash table from cell keys to cells, with linear probing.
+     * Keys stay primitive, so looking up a cell does not box a Long.
+     */
+    private static final class CellMap
+    {
+        private static final int INITIAL_CAPACITY = 64;
+        private static final int MAX_LOAD_DIVISOR = 2;
+        private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+        private long[] keys;
+        private List<Entry>[] values;
+        private int size;
+
+        /**
+         * Constructs an empty CellMap.
+         */
+        private CellMap()
+        {
+            this.keys = new long[INITIAL_CAPACITY];
+            this.values = newValues(INITIAL_CAPACITY);
+            this.size = 0;
+        }
+
+        /**
+         * Returns the number of cells stored.
+         *
+         * @return the cell count
+         */
+        private int size()
+        {
+            return size;
+        }
+
+        /**
+         * Returns the number of slots, for iterating with keyAt() and valueAt().
+         *
+         * @return the table capacity
+         */
+        private int capacity()
+        {
+            return values.length;
+        }
+
+        /**
+         * Returns the key in a slot.
+         *
+         * @param slot the slot index
+         * @return the key, meaningful only if valueAt(slot) is not null
+         */
+        private long keyAt(final int slot)
+        {
+            return keys[slot];
+        }
+
+        /**
+         * Returns the cell in a slot.
+         *
+         * @param slot the slot index
+         * @return the cell, or null if the slot is empty
+         */
+        private List<Entry> valueAt(final int slot)
+        {
+            return values[slot];
+        }
+
+        /**
+         * Returns the cell with the specified key.
+         *
+         * @param key the cell key
+         * @return the cell, or null if there is none
+         */
+        private List<Entry> get(final long key)
+        {
+            int slot;
+
+            slot = home(key, values.length);
+
+            while (values[slot] != null)
+            {
+                if (keys[slot] == key)
+                {
+                    return values[slot];
+                }
+
+                slot = (slot + 1) & (values.length - 1);
+            }
+
+            return null;
+        }
+
+        /**
+         * Stores a cell under a key that is not yet in the table.
+         *
+         * @param key  the cell key
+         * @param cell the cell
+         */
+        private void put(final long key,
+                         final List<Entry> cell)
+        {
+            if ((size + 1) * MAX_LOAD_DIVISOR > values.length)
+            {
+                resize(values.length * 2);
+            }
+
+            insert(key, cell);
+            size++;
+        }
+
+        /**
+         * Removes the cell with the specified key, shifting later entries of its probe run back
+         * so that every remaining key is still reachable from its home slot.
+         *
+         * @param key the cell key
+         */
+        private void remove(final long key)
+        {
+            final int mask;
+            int gap;
+            int slot;
+
+            mask = values.length - 1;
+            gap = home(key, values.length);
+
+            while (values[gap] != null && keys[gap] != key)
+            {
+                gap = (gap + 1) & mask;
+            }
+
+            if (values[gap] == null)
+            {
+                return;
+            }
+
+            values[gap] = null;
+            size--;
+            slot = gap;
+
+            while (true)
+            {
+                final int home;
+
+                slot = (slot + 1) & mask;
+
+                if (values[slot] == null)
+                {
+                    return;
+                }
+
+                home = home(keys[slot], values.length);
+
+                if (((slot - home) & mask) >= ((slot - gap) & mask))
+                {
+                    keys[gap] = keys[slot];
+                    values[gap] = values[slot];
+                    values[slot] = null;
+                    gap = slot;
+                }
+            }
+        }
+
+        /**
+         * Moves every cell into a table of the specified capacity.
+         *
+         * @param capacity the new capacity, a power of two
+         */
+        private void resize(final int capacity)
+        {
+            final long[] oldKeys;
+            final List<Entry>[] oldValues;
+
+            oldKeys = keys;
+            oldValues = values;
+            keys = new long[capacity];
+            values = newValues(capacity);
+
+            for (int slot = 0; slot < oldValues.length; slot++)
+            {
+                if (oldValues[slot] != null)
+                {
+                    insert(oldKeys[slot], oldValues[slot]);
+                }
+            }
+        }
+
+        /**
+         * Places a key and cell in the first free slot of the key's probe run.
+         *
+         * @param key  the cell key
+         * @param cell the cell
+         */
+        private void insert(final long key,
+                            final List<Entry> cell)
+        {
+            int slot;
+
+            slot = home(key, values.length);
+
+            while (values[slot] != null)
+            {
+                slot = (slot + 1) & (values.length - 1);
+            }
+
+            keys[slot] = key;
+            values[slot] = cell;
+        }
+
+        /**
+         * Returns the slot where a key's probe run starts.
+         *
+         * @param key      the cell key
+         * @param capacity the table capacity, a power of two
+         * @return the home slot
+         */
+        private static int home(final long key,
+                                final int capacity)
+        {
+            return (int)((key * HASH_MULTIPLIER) >>> (Long.SIZE - Integer.numberOfTrailingZeros(capacity)));
+        }
+
+        /**
+         * Creates an empty array of cells.
+         *
+         * @param capacity the array length
+         * @return the array
+         */
+        @SuppressWarnings("unchecked")
+        private static List<Entry>[] newValues(final int capacity)
+        {
+            return (List<Entry>[])new List<?>[capacity];
+        }
+    }
+
+    /**
+     * A creature's position and where it is stored in the grid.
+     */
+    private static final class Entry
+    {
+        private final Creature creature;
+        private double x;
+        private double y;
+        private long cellKey;
+        private int slot;
+
+        /**
+         * Constructs an Entry for the specified creature.
+         *
+         * @param creature the creature being positioned
+         */
+        private Entry(final Creature creature)
+        {
+            this.creature = creature;
+        }
+
+        /**
+         * Returns the squared distance from this entry to a point.
+         *
+         * @param px the point's x coordinate
+         * @param py the point's y coordinate
+         * @return the squared distance
+         */
+        private double distanceSquared(final double px,
+                                       final double py)
+        {
+            final double dx;
+            final double dy;
+
+            dx = x - px;
+            dy = y - py;
+
+            return dx * dx + dy * dy;
+        }
+    }
+
+    /**
+     * A creature found by a nearest-neighbour query and its squared distance.
+     */
+    private static final class Candidate
+    {
+        private final Creature creature;
+        private final double distanceSquared;
+
+        /**
+         * Constructs a Candidate.
+         *
+         * @param creature        the creature found
+         * @param distanceSquared the squared distance to the query point
+         */
+        private Candidate(final Creature creature,
+                          final double distanceSquared)
+        {
+            this.creature = creature;
+            this.distanceSquared = distanceSquared;
+        }
+    }
+}
@@ -0,0 +1,674 @@
+package ca.bcit.comp2522.code;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs simulation ticks as a four-stage pipeline, each stage on its own thread:
+ * <ol>
+ *     <li>actions: an ActionPolicy chooses attacks from the World's latest published snapshot;</li>
+ *     <li>combat: the World's single writer applies them with breatheFire(), castSpell(), and
+ *     berserk(), then publishes a new snapshot;</li>
+ *     <li>events: the details of every creature that changed in that snapshot are rendered;</li>
+ *     <li>persistence: the rendered events are handed to a TickSink.</li>
+ * </ol>
+ * Stages hand ticks to each other through bounded queues, so while tick N is being persisted,
+ * tick N+1 can already be resolved and tick N+2 planned. When a queue is full its producer waits,
+ * which keeps a slow stage from letting work pile up. Because of this overlap the policy may see
+ * a snapshot from before the previous tick was resolved; combat still applies ticks strictly in order.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class TickPipeline
+{
+    private static final int MIN_QUEUE_CAPACITY = 1;
+    private static final long END_TICK = -1L;
+    private static final String STAGE_THREAD_PREFIX = "tick-";
+
+    private final World world;
+    private final ActionPolicy policy;
+    private final TickSink sink;
+    private final int queueCapacity;
+
+    private final StageMetrics actionMetrics;
+    private final StageMetrics combatMetrics;
+    private final StageMetrics eventMetrics;
+    private final StageMetrics persistenceMetrics;
+
+    private WorldSnapshot lastRendered;
+
+    /**
+     * Chooses the attacks for one tick. Called on the action stage thread only.
+     */
+    @FunctionalInterface
+    public interface ActionPolicy
+    {
+        /**
+         * Chooses the attacks for a tick.
+         *
+         * @param tick     the tick number, starting from zero
+         * @param snapshot the most recently published state of the World
+         * @return the attacks to make, in order
+         */
+        TickActions decide(long tick, WorldSnapshot snapshot);
+    }
+
+    /**
+     * Stores the events of one tick. Called on the persistence stage thread only, in tick order.
+     */
+    @FunctionalInterface
+    public interface TickSink
+    {
+        /**
+         * Stores the events of a tick.
+         *
+         * @param tick   the tick number
+         * @param events the rendered details of every creature that changed in the tick
+         * @throws IOException if the events cannot be stored
+         */
+        void persist(long tick, List<String> events) throws IOException;
+    }
+
+    /**
+     * The attacks chosen for one tick, as pairs of World indexes.
+     */
+    public static final class TickActions
+    {
+        private final int[] attackers;
+        private final int[] targets;
+
+        /**
+         * Constructs TickActions in which attackers[i] attacks targets[i].
+         *
+         * @param attackers the World indexes of the attackers (must not be null)
+         * @param targets   the World indexes of the targets (must not be null, same length as attackers)
+         * @throws IllegalArgumentException if either array is null or their lengths differ
+         */
+        public TickActions(final int[] attackers,
+                           final int[] targets)
+        {
+            if (attackers == null || targets == null)
+            {
+                throw new IllegalArgumentException("Attackers and targets must not be null.");
+            }
+
+            if (attackers.length != targets.length)
+            {
+                throw new IllegalArgumentException("Attackers and targets differ in length: " +
+                        attackers.length + " and " + targets.length);
+            }
+
+            this.attackers = Arrays.copyOf(attackers, attackers.length);
+            this.targets = Arrays.copyOf(targets, targets.length);
+        }
+
+        /**
+         * Returns the number of attacks.
+         *
+         * @return the attack count
+         */
+        public int size()
+        {
+            return attackers.length;
+        }
+    }
+
+    /**
+     * Throughput and input queue depth of one stage, accumulated since the pipeline was constructed.
+     * Written only by the stage's own thread; safe to read from any thread.
+     */
+    public static final class StageMetrics
+    {
+        private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+        private final String name;
+        private volatile long processed;
+        private volatile long busyNanos;
+        private volatile long depthSamples;
+        private volatile long depthTotal;
+        private volatile int maxDepth;
+
+        /**
+         * Constructs empty StageMetrics.
+         *
+         * @param name the stage name
+         */
+        private StageMetrics(final String name)
+        {
+            this.name = name;
+        }
+
+        /**
+         * Returns the stage name.
+         *
+         * @return the name
+         */
+        public String getName()
+        {
+            return name;
+        }
+
+        /**
+         * Returns the number of ticks the stage has finished.
+         *
+         * @return the tick count
+         */
+        public long getProcessed()
+        {
+            return processed;
+        }
+
+        /**
+         * Returns the time the stage has spent working, not counting time waiting on its queues.
+         *
+         * @return the busy time in nanoseconds
+         */
+        public long getBusyNanos()
+        {
+            return busyNanos;
+        }
+
+        /**
+         * Returns the ticks per second the stage could sustain on its own, based on its busy time.
+         *
+         * @return the throughput in ticks per second, or zero if the stage has not run
+         */
+        public double getThroughputPerSecond()
+        {
+            final long busy;
+
+            busy = busyNanos;
+
+            if (busy == 0L)
+            {
+                return 0.0;
+            }
+
+            return processed * NANOS_PER_SECOND / busy;
+        }
+
+        /**
+         * Returns the average number of ticks waiting in the stage's input queue when it took one.
+         *
+         * @return the average depth, or zero for the first stage, which has no input queue
+         */
+        public double getAverageQueueDepth()
+        {
+            final long samples;
+
+            samples = depthSamples;
+
+            if (samples == 0L)
+            {
+                return 0.0;
+            }
+
+            return (double)depthTotal / samples;
+        }
+
+        /**
+         * Returns the most ticks ever waiting in the stage's input queue when it took one.
+         *
+         * @return the maximum depth
+         */
+        public int getMaxQueueDepth()
+        {
+            return maxDepth;
+        }
+
+        /**
+         * Returns a one-line summary of the metrics.
+         *
+         * @return the metrics as a string
+         */
+        @Override
+        public String toString()
+        {
+            return String.format("Stage=%s, Ticks=%d, Throughput=%.1f/s, AvgQueueDepth=%.2f, MaxQueueDepth=%d",
+                    name,
+                    processed,
+                    getThroughputPerSecond(),
+                    getAverageQueueDepth(),
+                    maxDepth);
+        }
+
+        /**
+         * Records the depth of the input queue just before a take.
+         *
+         * @param depth the number of ticks waiting
+         */
+        private void sampleDepth(final int depth)
+        {
+            depthSamples++;
+            depthTotal += depth;
+
+            if (depth > maxDepth)
+            {
+                maxDepth = depth;
+            }
+        }
+
+        /**
+         * Records one finished tick.
+         *
+         * @param nanos the time spent on it
+         */
+        private void recordTick(final long nanos)
+        {
+            processed++;
+            busyNanos += nanos;
+        }
+    }
+
+    /**
+     * Constructs a TickPipeline.
+     *
+     * @param world         the World to simulate; the combat stage becomes its writer while running (must not be null)
+     * @param policy        chooses each tick's attacks (must not be null)
+     * @param sink          stores each tick's events (must not be null)
+     * @param queueCapacity the most ticks waiting between two stages (must be positive)
+     * @throws IllegalArgumentException if an argument is null or queueCapacity is not positive
+     */
+    public TickPipeline(final World world,
+                        final ActionPolicy policy,
+                        final TickSink sink,
+                        final int queueCapacity)
+    {
+        if (world == null || policy == null || sink == null)
+        {
+            throw new IllegalArgumentException("World, policy, and sink must not be null.");
+        }
+
+        if (queueCapacity < MIN_QUEUE_CAPACITY)
+        {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+
+        this.world = world;
+        this.policy = policy;
+        this.sink = sink;
+        this.queueCapacity = queueCapacity;
+
+        this.actionMetrics = new StageMetrics("actions");
+        this.combatMetrics = new StageMetrics("combat");
+        this.eventMetrics = new StageMetrics("events");
+        this.persistenceMetrics = new StageMetrics("persistence");
+    }
+
+    /**
+     * Runs the specified number of ticks through the pipeline and waits until the last is persisted.
+     * The World must not be used by other writers until this method returns.
+     * If any stage fails, the others are stopped and the failure is rethrown.
+     *
+     * @param ticks the number of ticks to run (must not be negative)
+     * @throws IOException if the sink fails
+     * @throws InterruptedException if interrupted while waiting for the stages
+     * @throws IllegalArgumentException if ticks is negative
+     */
+    public void run(final long ticks) throws IOException, InterruptedException
+    {
+        final BlockingQueue<Handoff<TickActions>> planned;
+        final BlockingQueue<Handoff<WorldSnapshot>> resolved;
+        final BlockingQueue<Handoff<List<String>>> rendered;
+        final AtomicReference<Throwable> failure;
+        final List<Thread> stages;
+        final Throwable failed;
+
+        if (ticks < 0L)
+        {
+            throw new IllegalArgumentException("Ticks must not be negative: " + ticks);
+        }
+
+        planned = new ArrayBlockingQueue<>(queueCapacity);
+        resolved = new ArrayBlockingQueue<>(queueCapacity);
+        rendered = new ArrayBlockingQueue<>(queueCapacity);
+        failure = new AtomicReference<>();
+        stages = new ArrayList<>();
+        lastRendered = world.snapshot();
+
+        stages.add(stageThread(actionMetrics, failure, stages, () -> plan(ticks, planned)));
+        stages.add(stageThread(combatMetrics, failure, stages,
+                () -> relay(combatMetrics, planned, resolved, (tick, actions) -> resolve(actions))));
+        stages.add(stageThread(eventMetrics, failure, stages,
+                () -> relay(eventMetrics, resolved, rendered, this::render)));
+        stages.add(stageThread(persistenceMetrics, failure, stages,
+                () -> relay(persistenceMetrics, rendered, null, this::persist)));
+
+        for (final Thread stage : stages)
+        {
+            stage.start();
+        }
+
+        try
+        {
+            for (final Thread stage : stages)
+            {
+                stage.join();
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            for (final Thread stage : stages)
+            {
+                stage.interrupt();
+            }
+
+            throw e;
+        }
+
+        failed = failure.get();
+
+        if (failed instanceof IOException)
+        {
+            throw (IOException)failed;
+        }
+        else if (failed instanceof RuntimeException)
+        {
+            throw (RuntimeException)failed;
+        }
+        else if (failed instanceof Error)
+        {
+            throw (Error)failed;
+        }
+    }
+
+    /**
+     * Returns the metrics of every stage, in pipeline order.
+     *
+     * @return the action, combat, event, and persistence stage metrics
+     */
+    public List<StageMetrics> getStageMetrics()
+    {
+        return List.of(actionMetrics, combatMetrics, eventMetrics, persistenceMetrics);
+    }
+
+    /**
+     * The action stage: asks the policy for each tick's attacks.
+     *
+     * @param ticks   the number of ticks to plan
+     * @param planned the queue to the combat stage
+     * @throws InterruptedException if the pipeline is stopped
+     */
+    private void plan(final long ticks,
+                      final BlockingQueue<Handoff<TickActions>> planned) throws InterruptedException
+    {
+        for (long tick = 0L; tick < ticks; tick++)
+        {
+            final long start;
+            final TickActions actions;
+
+            start = System.nanoTime();
+            actions = policy.decide(tick, world.snapshot());
+
+            if (actions == null)
+            {
+                throw new IllegalStateException("Policy returned no actions for tick " + tick);
+            }
+
+            actionMetrics.recordTick(System.nanoTime() - start);
+            planned.put(new Handoff<>(tick, actions));
+        }
+
+        planned.put(Handoff.end());
+    }
+
+    /**
+     * Runs a middle or final stage: takes each tick from its input, processes it, and passes the
+     * result on, until the end of the run reaches it.
+     *
+     * @param metrics the stage's metrics
+     * @param input   the queue from the previous stage
+     * @param output  the queue to the next stage, or null for the final stage
+     * @param step    the stage's work
+     * @param <I>     the type the stage receives
+     * @param <O>     the type the stage produces
+     * @throws IOException if the step fails to store a tick
+     * @throws InterruptedException if the pipeline is stopped
+     */
+    private static <I, O> void relay(final StageMetrics metrics,
+                                     final BlockingQueue<Handoff<I>> input,
+                                     final BlockingQueue<Handoff<O>> output,
+                                     final Step<I, O> step) throws IOException, InterruptedException
+    {
+        while (true)
+        {
+            final Handoff<I> received;
+            final long start;
+            final O result;
+
+            metrics.sampleDepth(input.size());
+            received = input.take();
+
+            if (received.isEnd())
+            {
+                if (output != null)
+                {
+                    output.put(Handoff.end());
+                }
+
+                return;
+            }
+
+            start = System.nanoTime();
+            result = step.apply(received.tick, received.payload);
+            metrics.recordTick(System.nanoTime() - start);
+
+            if (output != null)
+            {
+                output.put(new Handoff<>(received.tick, result));
+            }
+        }
+    }
+
+    /**
+     * The combat stage: applies a tick's attacks to the live creatures and publishes the result.
+     * An attack that fails for lack of fire power, mana, or rage deals no damage.
+     *
+     * @param actions the attacks to make
+     * @return the snapshot published after the attacks
+     */
+    private WorldSnapshot resolve(final TickActions actions)
+    {
+        for (int i = 0; i < actions.size(); i++)
+        {
+            Attacks.attack(world.get(actions.attackers[i]), world.get(actions.targets[i]));
+        }
+
+        return world.publish();
+    }
+
+    /**
+     * The event stage: renders the details of every creature whose snapshot changed in this tick.
+     * Pages the World shared with the previous snapshot are skipped without looking inside.
+     *
+     * @param tick     the tick number
+     * @param snapshot the snapshot published by the tick
+     * @return the rendered details, in World index order
+     */
+    private List<String> render(final long tick,
+                                final WorldSnapshot snapshot)
+    {
+        final List<String> events;
+
+        events = new ArrayList<>();
+
+        for (int p = 0; p < snapshot.pageCount(); p++)
+        {
+            final CreatureSnapshot[] page;
+            final CreatureSnapshot[] previousPage;
+
+            page = snapshot.page(p);
+
+            if (p < lastRendered.pageCount())
+            {
+                previousPage = lastRendered.page(p);
+            }
+            else
+            {
+                previousPage = new CreatureSnapshot[0];
+            }
+
+            if (page == previousPage)
+            {
+                continue;
+            }
+
+            for (int i = 0; i < page.length; i++)
+            {
+                if (i >= previousPage.length || page[i] != previousPage[i])
+                {
+                    events.add(page[i].getDetails());
+                }
+            }
+        }
+
+        lastRendered = snapshot;
+
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * The persistence stage: hands a tick's events to the sink.
+     *
+     * @param tick   the tick number
+     * @param events the rendered events
+     * @return null, since this is the final stage
+     * @throws IOException if the sink fails
+     */
+    private Void persist(final long tick,
+                         final List<String> events) throws IOException
+    {
+        sink.persist(tick, events);
+
+        return null;
+    }
+
+    /**
+     * Creates the thread for one stage. If the stage fails, the failure is recorded and every
+     * other stage is interrupted so none is left waiting on a queue.
+     *
+     * @param metrics the stage's metrics, used for the thread name
+     * @param failure where the first failure of the run is recorded
+     * @param stages  every stage thread of the run
+     * @param body    the stage's work
+     * @return the unstarted thread
+     */
+    private static Thread stageThread(final StageMetrics metrics,
+                                      final AtomicReference<Throwable> failure,
+                                      final List<Thread> stages,
+                                      final StageBody body)
+    {
+        return new Thread(() ->
+        {
+            try
+            {
+                body.run();
+            }
+            catch (final InterruptedException e)
+            {
+                // Stopped because another stage failed.
+            }
+            catch (final IOException | RuntimeException | Error e)
+            {
+                if (failure.compareAndSet(null, e))
+                {
+                    for (final Thread stage : stages)
+                    {
+                        if (stage != Thread.currentThread())
+                        {
+                            stage.interrupt();
+                        }
+                    }
+                }
+            }
+        }, STAGE_THREAD_PREFIX + metrics.getName());
+    }
+
+    /**
+     * The work of one stage thread.
+     */
+    @FunctionalInterface
+    private interface StageBody
+    {
+        /**
+         * Runs the stage until the end of the run.
+         *
+         * @throws IOException if the stage fails to store a tick
+         * @throws InterruptedException if the pipeline is stopped
+         */
+        void run() throws IOException, InterruptedException;
+    }
+
+    /**
+     * The per-tick work of a middle or final stage.
+     *
+     * @param <I> the type the stage receives
+     * @param <O> the type the stage produces
+     */
+    @FunctionalInterface
+    private interface Step<I, O>
+    {
+        /**
+         * Processes one tick.
+         *
+         * @param tick  the tick number
+         * @param input what the previous stage produced for the tick
+         * @return what to pass to the next stage
+         * @throws IOException if the tick cannot be stored
+         */
+        O apply(long tick, I input) throws IOException;
+    }
+
+    /**
+     * One tick's work passed between stages, or the end-of-run marker.
+     *
+     * @param <T> the type of work
+     */
+    private static final class Handoff<T>
+    {
+        private final long tick;
+        private final T payload;
+
+        /**
+         * Constructs a Handoff.
+         *
+         * @param tick    the tick number, or END_TICK
+         * @param payload the work, or null for the end marker
+         */
+        private Handoff(final long tick,
+                        final T payload)
+        {
+            this.tick = tick;
+            this.payload = payload;
+        }
+
+        /**
+         * Returns the end-of-run marker.
+         *
+         * @param <T> the type of work
+         * @return a Handoff with no work
+         */
+        private static <T> Handoff<T> end()
+        {
+            return new Handoff<>(END_TICK, null);
+        }
+
+        /**
+         * Returns whether this is the end-of-run marker.
+         *
+         * @return true if no more ticks follow
+         */
+        private boolean isEnd()
+        {
+            return tick == END_TICK;
+        }
+    }
+}
@@ -0,0 +1,553 @@
+package ca.bcit.comp2522.code;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores creatures by name in two tiers.
+ * Living, active creatures stay in the hot tier on the heap. Dead or long-idle creatures can be
+ * moved to the cold tier: compressed records appended to segment files on disk.
+ * get() returns a read-only CreatureSnapshot from either tier, and a bounded LRU cache keeps
+ * snapshots of recently read cold creatures on the heap. promote() is the only way to obtain a
+ * Creature that can be changed: a cold creature is rebuilt as a Dragon, Elf, Orc, or Creature and
+ * moved to the hot tier, so the same instance is returned until it is evicted and its state is written out.
+ * This class is not thread-safe.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class TieredCreatureStore
+{
+    private static final long DEFAULT_SEGMENT_BYTES = 16L * 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".cold";
+    private static final int LENGTH_BYTES = Integer.BYTES * 2;
+    private static final int CACHE_INITIAL_CAPACITY = 16;
+    private static final float CACHE_LOAD_FACTOR = 0.75f;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final Map<String, HotEntry> hot;
+    private final Map<String, ColdLocation> cold;
+    private final Map<String, CreatureSnapshot> cache;
+    private final List<RandomAccessFile> segments;
+    private final Deflater deflater;
+    private final Inflater inflater;
+
+    /**
+     * Constructs an empty TieredCreatureStore that writes cold segments to a directory.
+     *
+     * @param directory     the directory for cold segments (created if missing)
+     * @param cacheCapacity the number of cold creature snapshots kept on the heap after lookup (must not be negative)
+     * @throws IOException if the directory cannot be created
+     * @throws IllegalArgumentException if directory is null or cacheCapacity is negative
+     */
+    public TieredCreatureStore(final Path directory,
+                               final int cacheCapacity) throws IOException
+    {
+        this(directory, cacheCapacity, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Constructs an empty TieredCreatureStore with a specific segment size.
+     *
+     * @param directory     the directory for cold segments (created if missing)
+     * @param cacheCapacity the number of cold creature snapshots kept on the heap after lookup (must not be negative)
+     * @param segmentBytes  the size at which a new segment file is started (must be positive)
+     * @throws IOException if the directory cannot be created
+     * @throws IllegalArgumentException if an argument is invalid
+     */
+    public TieredCreatureStore(final Path directory,
+                               final int cacheCapacity,
+                               final long segmentBytes) throws IOException
+    {
+        if (directory == null)
+        {
+            throw new IllegalArgumentException("Directory must not be null.");
+        }
+
+        if (cacheCapacity < 0)
+        {
+            throw new IllegalArgumentException("Cache capacity cannot be negative: " + cacheCapacity);
+        }
+
+        if (segmentBytes <= 0L)
+        {
+            throw new IllegalArgumentException("Segment size must be positive: " + segmentBytes);
+        }
+
+        Files.createDirectories(directory);
+
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.hot = new HashMap<>();
+        this.cold = new HashMap<>();
+        this.cache = new LinkedHashMap<>(CACHE_INITIAL_CAPACITY, CACHE_LOAD_FACTOR, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CreatureSnapshot> eldest)
+            {
+                return size() > cacheCapacity;
+            }
+        };
+        this.segments = new ArrayList<>();
+        this.deflater = new Deflater(Deflater.BEST_SPEED);
+        this.inflater = new Inflater();
+    }
+
+    /**
+     * Adds a creature to the hot tier.
+     *
+     * @param creature the creature to add (must not be null)
+     * @param now      the current time in milliseconds, used to measure idleness
+     * @throws IllegalArgumentException if creature is null or its name is already stored
+     */
+    public void put(final Creature creature,
+                    final long now)
+    {
+        if (creature == null)
+        {
+            throw new IllegalArgumentException("Creature must not be null.");
+        }
+
+        if (contains(creature.getName()))
+        {
+            throw new IllegalArgumentException("A creature with this name is already stored: " + creature.getName());
+        }
+
+        hot.put(creature.getName(), new HotEntry(creature, now));
+    }
+
+    /**
+     * Returns a read-only copy of the creature with the specified name from whichever tier holds it.
+     * A hot creature is marked as used at the specified time. A cold creature is read from
+     * disk unless it is in the cache, and stays in the cold tier; use promote() to change it.
+     *
+     * @param name the creature's name
+     * @param now  the current time in milliseconds
+     * @return a snapshot of the creature, or null if no creature has that name
+     * @throws IOException if a cold segment cannot be read
+     */
+    public CreatureSnapshot get(final String name,
+                                final long now) throws IOException
+    {
+        final HotEntry entry;
+        final ColdLocation location;
+        CreatureSnapshot snapshot;
+
+        entry = hot.get(name);
+
+        if (entry != null)
+        {
+            entry.lastUsed = now;
+            return new CreatureSnapshot(entry.creature);
+        }
+
+        location = cold.get(name);
+
+        if (location == null)
+        {
+            return null;
+        }
+
+        snapshot = cache.get(name);
+
+        if (snapshot == null)
+        {
+            snapshot = read(location).toSnapshot();
+            cache.put(name, snapshot);
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Checks if a creature with the specified name is stored in either tier.
+     *
+     * @param name the creature's name
+     * @return true if the name is stored, false otherwise
+     */
+    public boolean contains(final String name)
+    {
+        return hot.containsKey(name) || cold.containsKey(name);
+    }
+
+    /**
+     * Returns the number of creatures in the hot tier.
+     *
+     * @return the hot creature count
+     */
+    public int hotSize()
+    {
+        return hot.size();
+    }
+
+    /**
+     * Returns the number of creatures in the cold tier.
+     *
+     * @return the cold creature count
+     */
+    public int coldSize()
+    {
+        return cold.size();
+    }
+
+    /**
+     * Moves every hot creature that is dead, or has not been used for the specified time, to the cold tier.
+     *
+     * @param now           the current time in milliseconds
+     * @param maxIdleMillis how long a living creature may go unused before it is moved
+     * @return the number of creatures moved
+     * @throws IOException if a cold segment cannot be written
+     */
+    public int evict(final long now,
+                     final long maxIdleMillis) throws IOException
+    {
+        final Iterator<HotEntry> entries;
+        int moved;
+
+        entries = hot.values().iterator();
+        moved = 0;
+
+        while (entries.hasNext())
+        {
+            final HotEntry entry;
+
+            entry = entries.next();
+
+            if (!entry.creature.isAlive() || now - entry.lastUsed > maxIdleMillis)
+            {
+                cold.put(entry.creature.getName(), write(entry.creature));
+                entries.remove();
+                moved++;
+            }
+        }
+
+        return moved;
+    }
+
+    /**
+     * Returns the creature with the specified name as a Creature that can be changed, moving it
+     * back to the hot tier first if it is cold, for example when a resting creature rejoins the fight.
+     * The creature is marked as used at the specified time, and every call returns the same
+     * instance until the creature is evicted again.
+     *
+     * @param name the creature's name
+     * @param now  the current time in milliseconds
+     * @return the creature now in the hot tier, or null if no creature has that name
+     * @throws IOException if the cold segment cannot be read
+     */
+    public Creature promote(final String name,
+                            final long now) throws IOException
+    {
+        final HotEntry entry;
+        final ColdLocation location;
+        final Creature creature;
+
+        entry = hot.get(name);
+
+        if (entry != null)
+        {
+            entry.lastUsed = now;
+            return entry.creature;
+        }
+
+        location = cold.get(name);
+
+        if (location == null)
+        {
+            return null;
+        }
+
+        creature = read(location).toCreature();
+
+        cold.remove(name);
+        cache.remove(name);
+        hot.put(name, new HotEntry(creature, now));
+
+        return creature;
+    }
+
+    /**
+     * Closes every segment file. The cold tier cannot be read afterwards.
+     *
+     * @throws IOException if a segment cannot be closed
+     */
+    public void close() throws IOException
+    {
+        for (final RandomAccessFile segment : segments)
+        {
+            segment.close();
+        }
+
+        deflater.end();
+        inflater.end();
+    }
+
+    /**
+     * Compresses a creature and appends it to the current segment, starting a new segment when full.
+     * Each record is the compressed length, the uncompressed length, and the compressed bytes.
+     *
+     * @param creature the creature to write
+     * @return where the record was written
+     * @throws IOException if the segment cannot be written
+     */
+    private ColdLocation write(final Creature creature) throws IOException
+    {
+        final byte[] raw;
+        final byte[] compressed;
+        final int compressedLength;
+        final RandomAccessFile segment;
+        final long offset;
+
+        raw = encode(creature);
+        compressed = new byte[raw.length + raw.length / 2 + LENGTH_BYTES * 4];
+
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        compressedLength = deflater.deflate(compressed);
+
+        if (!deflater.finished())
+        {
+            throw new IOException("Compressed record for " + creature.getName() + " does not fit its buffer.");
+        }
+
+        segment = currentSegment();
+        offset = segment.length();
+
+        segment.seek(offset);
+        segment.writeInt(compressedLength);
+        segment.writeInt(raw.length);
+        segment.write(compressed, 0, compressedLength);
+
+        return new ColdLocation(segments.size() - 1, offset);
+    }
+
+    /**
+     * Reads and decompresses a creature record.
+     *
+     * @param location where the record was written
+     * @return the stored values
+     * @throws IOException if the segment cannot be read or the record is damaged
+     */
+    private StoredCreature read(final ColdLocation location) throws IOException
+    {
+        final RandomAccessFile segment;
+        final byte[] compressed;
+        final byte[] raw;
+
+        segment = segments.get(location.segment);
+        segment.seek(location.offset);
+        compressed = new byte[segment.readInt()];
+        raw = new byte[segment.readInt()];
+        segment.readFully(compressed);
+
+        inflater.reset();
+        inflater.setInput(compressed);
+
+        try
+        {
+            if (inflater.inflate(raw) != raw.length)
+            {
+                throw new IOException("Cold record is truncated at offset " + location.offset);
+            }
+        }
+        catch (final DataFormatException e)
+        {
+            throw new IOException("Cold record is damaged at offset " + location.offset, e);
+        }
+
+        return decode(raw);
+    }
+
+    /**
+     * Returns the segment new records go to, starting a new one if the current one is full.
+     *
+     * @return the current segment
+     * @throws IOException if a new segment cannot be created
+     */
+    private RandomAccessFile currentSegment() throws IOException
+    {
+        if (segments.isEmpty() || segments.get(segments.size() - 1).length() >= segmentBytes)
+        {
+            final Path file;
+
+            file = directory.resolve(SEGMENT_PREFIX + segments.size() + SEGMENT_SUFFIX);
+            Files.deleteIfExists(file);
+            segments.add(new RandomAccessFile(file.toFile(), "rw"));
+        }
+
+        return segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Writes a creature's type, name, birthdate, health, and resource as bytes.
+     *
+     * @param creature the creature to encode
+     * @return the encoded bytes
+     * @throws IOException never, since the bytes are written to memory
+     */
+    private static byte[] encode(final Creature creature) throws IOException
+    {
+        final ByteArrayOutputStream bytes;
+
+        bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes))
+        {
+            out.writeByte(CreatureType.of(creature).ordinal());
+            out.writeUTF(creature.getName());
+            out.writeLong(creature.getDateOfBirth().getTime());
+            out.writeInt(creature.getHealth());
+            out.writeInt(CreatureType.resourceOf(creature));
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads back the values written by encode().
+     *
+     * @param raw the encoded bytes
+     * @return the stored values
+     * @throws IOException if the bytes cannot be decoded
+     */
+    private static StoredCreature decode(final byte[] raw) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw)))
+        {
+            final CreatureType type;
+            final String name;
+            final long dateOfBirthMillis;
+            final int health;
+            final int resource;
+
+            type = CreatureType.values()[in.readUnsignedByte()];
+            name = in.readUTF();
+            dateOfBirthMillis = in.readLong();
+            health = in.readInt();
+            resource = in.readInt();
+
+            return new StoredCreature(type, name, dateOfBirthMillis, health, resource);
+        }
+    }
+
+    /**
+     * A hot creature and when it was last used.
+     */
+    private static final class HotEntry
+    {
+        private final Creature creature;
+        private long lastUsed;
+
+        /**
+         * Constructs a HotEntry.
+         *
+         * @param creature the creature
+         * @param lastUsed when the creature was last used, in milliseconds
+         */
+        private HotEntry(final Creature creature,
+                         final long lastUsed)
+        {
+            this.creature = creature;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    /**
+     * Where a cold creature's record is stored.
+     */
+    private static final class ColdLocation
+    {
+        private final int segment;
+        private final long offset;
+
+        /**
+         * Constructs a ColdLocation.
+         *
+         * @param segment the segment number
+         * @param offset  the byte offset of the record in the segment
+         */
+        private ColdLocation(final int segment,
+                             final long offset)
+        {
+            this.segment = segment;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * The values of one cold record, decoded but not yet turned into a snapshot or a creature.
+     */
+    private static final class StoredCreature
+    {
+        private final CreatureType type;
+        private final String name;
+        private final long dateOfBirthMillis;
+        private final int health;
+        private final int resource;
+
+        /**
+         * Constructs a StoredCreature.
+         *
+         * @param type              the creature type
+         * @param name              the creature's name
+         * @param dateOfBirthMillis the creature's date of birth in milliseconds
+         * @param health            the stored health
+         * @param resource          the stored firepower, mana, or rage
+         */
+        private StoredCreature(final CreatureType type,
+                               final String name,
+                               final long dateOfBirthMillis,
+                               final int health,
+                               final int resource)
+        {
+            this.type = type;
+            this.name = name;
+            this.dateOfBirthMillis = dateOfBirthMillis;
+            this.health = health;
+            this.resource = resource;
+        }
+
+        /**
+         * Returns a read-only snapshot of the stored values, without creating a creature.
+         *
+         * @return the snapshot
+         */
+        private CreatureSnapshot toSnapshot()
+        {
+            return new CreatureSnapshot(type, name, dateOfBirthMillis, health, resource);
+        }
+
+        /**
+         * Rebuilds the stored creature without recording events, so reading it back
+         * does not look like a creature being created or damaged.
+         *
+         * @return the rebuilt creature
+         */
+        private Creature toCreature()
+        {
+            return type.restore(name, new Date(dateOfBirthMillis), health, resource);
+        }
+    }
+}
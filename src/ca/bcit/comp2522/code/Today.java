@@ -0,0 +1,114 @@
+package ca.bcit.comp2522.code;
+
+import java.util.Calendar;
+
+/**
+ * The current calendar year and day of year, cached for the local day they belong to.
+ * Lets age calculations find today's date without creating a Calendar on every call.
+ * The date is recomputed whenever the clock reads outside that day, whether midnight has
+ * passed or the clock or default time zone has moved back to an earlier day.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+final class Today
+{
+    private static volatile Today current = compute(System.currentTimeMillis());
+
+    private final int year;
+    private final int dayOfYear;
+    private final long validFromMillis;
+    private final long validUntilMillis;
+
+    /**
+     * Constructs a Today.
+     *
+     * @param year             the calendar year
+     * @param dayOfYear        the calendar day of year
+     * @param validFromMillis  the first instant of the day
+     * @param validUntilMillis the first instant of the next day
+     */
+    private Today(final int year,
+                  final int dayOfYear,
+                  final long validFromMillis,
+                  final long validUntilMillis)
+    {
+        this.year = year;
+        this.dayOfYear = dayOfYear;
+        this.validFromMillis = validFromMillis;
+        this.validUntilMillis = validUntilMillis;
+    }
+
+    /**
+     * Returns today's date, recomputing it only when the clock reads outside the cached day.
+     *
+     * @return today's date
+     */
+    static Today current()
+    {
+        final long now;
+        Today today;
+
+        now = System.currentTimeMillis();
+        today = current;
+
+        if (now < today.validFromMillis ||
+                now >= today.validUntilMillis)
+        {
+            today = compute(now);
+            current = today;
+        }
+
+        return today;
+    }
+
+    /**
+     * Returns the calendar year.
+     *
+     * @return the year
+     */
+    int getYear()
+    {
+        return year;
+    }
+
+    /**
+     * Returns the calendar day of year, as Calendar.DAY_OF_YEAR.
+     *
+     * @return the day of year (1 to 366)
+     */
+    int getDayOfYear()
+    {
+        return dayOfYear;
+    }
+
+    /**
+     * Computes the date at the specified instant in the default time zone.
+     *
+     * @param millis the instant
+     * @return the date, valid from its midnight until the following midnight
+     */
+    private static Today compute(final long millis)
+    {
+        final Calendar calendar;
+        final int year;
+        final int dayOfYear;
+        final long validFromMillis;
+
+        calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+
+        year = calendar.get(Calendar.YEAR);
+        dayOfYear = calendar.get(Calendar.DAY_OF_YEAR);
+
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        validFromMillis = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_YEAR, 1);
+
+        return new Today(year, dayOfYear, validFromMillis, calendar.getTimeInMillis());
+    }
+}
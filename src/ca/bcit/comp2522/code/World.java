@@ -0,0 +1,194 @@
+package ca.bcit.comp2522.code;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A versioned container of creatures.
+ * One simulation thread (the writer) adds creatures, changes them through their normal
+ * methods, and calls publish() at the end of each tick. Any number of reader threads call
+ * snapshot() to pin an immutable WorldSnapshot that stays consistent while the writer keeps going.
+ * Each creature tells its World when it changes, so publish() copies only the pages holding
+ * changed creatures and never reads the rest of the population.
+ * Old versions are reclaimed by the garbage collector once no reader holds them.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class World
+{
+    private static final long FIRST_EPOCH = 0L;
+
+    private final List<Creature> creatures;
+    private final BitSet dirtyPages;
+    private volatile WorldSnapshot current;
+
+    /**
+     * Constructs an empty World whose first snapshot has no creatures.
+     */
+    public World()
+    {
+        this.creatures = new ArrayList<>();
+        this.dirtyPages = new BitSet();
+        this.current = new WorldSnapshot(FIRST_EPOCH, 0, new CreatureSnapshot[0][]);
+    }
+
+    /**
+     * Adds a creature to the World. Only the writer thread may call this method.
+     * The creature appears in snapshots from the next publish() onward.
+     *
+     * A creature can belong to only one World.
+     *
+     * @param creature the creature to add (must not be null)
+     * @return the index of the creature in this World and its snapshots
+     * @throws IllegalArgumentException if creature is null or already belongs to a World
+     */
+    public int add(final Creature creature)
+    {
+        final int index;
+
+        if (creature == null)
+        {
+            throw new IllegalArgumentException("Creature must not be null.");
+        }
+
+        index = creatures.size();
+        creature.joinWorld(this, index);
+        creatures.add(creature);
+        markChanged(index);
+
+        return index;
+    }
+
+    /**
+     * Returns the live creature at the specified index. Only the writer thread may use it.
+     *
+     * @param index the index returned by add()
+     * @return the live creature
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public Creature get(final int index)
+    {
+        return creatures.get(index);
+    }
+
+    /**
+     * Returns the number of creatures added so far.
+     *
+     * @return the creature count
+     */
+    public int size()
+    {
+        return creatures.size();
+    }
+
+    /**
+     * Returns the most recently published snapshot. Safe to call from any thread.
+     *
+     * @return the current snapshot
+     */
+    public WorldSnapshot snapshot()
+    {
+        return current;
+    }
+
+    /**
+     * Publishes the current state of every creature as a new snapshot.
+     * Only the writer thread may call this method. Pages with no changed creature are
+     * shared with the previous snapshot; only the pages marked by markChanged() are copied.
+     *
+     * @return the newly published snapshot
+     */
+    public WorldSnapshot publish()
+    {
+        final WorldSnapshot previous;
+        final int size;
+        final int pageCount;
+        final CreatureSnapshot[][] pages;
+        final WorldSnapshot next;
+
+        previous = current;
+        size = creatures.size();
+        pageCount = (size + WorldSnapshot.PAGE_SIZE - 1) / WorldSnapshot.PAGE_SIZE;
+        pages = new CreatureSnapshot[pageCount][];
+
+        for (int p = 0; p < previous.pageCount(); p++)
+        {
+            pages[p] = previous.page(p);
+        }
+
+        for (int p = dirtyPages.nextSetBit(0); p >= 0; p = dirtyPages.nextSetBit(p + 1))
+        {
+            pages[p] = publishPage(previous, p);
+        }
+
+        dirtyPages.clear();
+
+        next = new WorldSnapshot(previous.getEpoch() + 1, size, pages);
+        current = next;
+
+        return next;
+    }
+
+    /**
+     * Marks the page holding a creature as changed since the last publish().
+     * Called by the creature on the writer thread whenever its health or resource changes.
+     *
+     * @param index the creature's index
+     */
+    void markChanged(final int index)
+    {
+        dirtyPages.set(index / WorldSnapshot.PAGE_SIZE);
+    }
+
+    /**
+     * Returns a new copy of a changed page, reusing the previous snapshot of every creature on it
+     * that did not change.
+     *
+     * @param previous  the last published snapshot
+     * @param pageIndex the page to build
+     * @return a new page with fresh snapshots of the changed creatures
+     */
+    private CreatureSnapshot[] publishPage(final WorldSnapshot previous,
+                                           final int pageIndex)
+    {
+        final int start;
+        final int length;
+        final CreatureSnapshot[] oldPage;
+        final CreatureSnapshot[] newPage;
+
+        start = pageIndex * WorldSnapshot.PAGE_SIZE;
+        length = Math.min(WorldSnapshot.PAGE_SIZE, creatures.size() - start);
+
+        if (pageIndex < previous.pageCount())
+        {
+            oldPage = previous.page(pageIndex);
+        }
+        else
+        {
+            oldPage = new CreatureSnapshot[0];
+        }
+
+        newPage = new CreatureSnapshot[length];
+
+        for (int i = 0; i < length; i++)
+        {
+            final Creature creature;
+
+            creature = creatures.get(start + i);
+
+            if (i < oldPage.length && oldPage[i].matches(creature))
+            {
+                newPage[i] = oldPage[i];
+            }
+            else
+            {
+                newPage[i] = new CreatureSnapshot(creature);
+            }
+        }
+
+        return newPage;
+    }
+}
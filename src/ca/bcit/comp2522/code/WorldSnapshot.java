@@ -0,0 +1,118 @@
+package ca.bcit.comp2522.code;
+
+/**
+ * An immutable, consistent view of every creature in a World at one epoch.
+ * Creature state is held in fixed-size pages; pages that did not change between
+ * two epochs are shared by both snapshots instead of being copied.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public final class WorldSnapshot
+{
+    static final int PAGE_SIZE = 64;
+
+    private final long epoch;
+    private final int size;
+    private final CreatureSnapshot[][] pages;
+
+    /**
+     * Constructs a WorldSnapshot over the specified pages.
+     * The pages must not be modified after being handed to the snapshot.
+     *
+     * @param epoch the version number of this snapshot
+     * @param size  the number of creatures in the snapshot
+     * @param pages the pages holding the creature snapshots
+     */
+    WorldSnapshot(final long epoch,
+                  final int size,
+                  final CreatureSnapshot[][] pages)
+    {
+        this.epoch = epoch;
+        this.size = size;
+        this.pages = pages;
+    }
+
+    /**
+     * Returns the version number of this snapshot.
+     * Epochs increase by one every time the World is published.
+     *
+     * @return the epoch of this snapshot
+     */
+    public long getEpoch()
+    {
+        return epoch;
+    }
+
+    /**
+     * Returns the number of creatures in this snapshot.
+     *
+     * @return the creature count
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the snapshot of the creature at the specified index.
+     *
+     * @param index the index the creature was added to the World at
+     * @return the creature's state at this epoch
+     * @throws IndexOutOfBoundsException if index is not between 0 and size() - 1
+     */
+    public CreatureSnapshot get(final int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Creature index out of range (0.." + (size - 1) + "): " + index);
+        }
+
+        return pages[index / PAGE_SIZE][index % PAGE_SIZE];
+    }
+
+    /**
+     * Returns the snapshot of the first creature with the specified name.
+     *
+     * @param name the name to look for
+     * @return the creature's state at this epoch, or null if no creature has that name
+     */
+    public CreatureSnapshot find(final String name)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            final CreatureSnapshot creature;
+
+            creature = get(i);
+
+            if (creature.getName().equals(name))
+            {
+                return creature;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the page at the specified page index.
+     *
+     * @param pageIndex the page to return
+     * @return the page, shared with other snapshots
+     */
+    CreatureSnapshot[] page(final int pageIndex)
+    {
+        return pages[pageIndex];
+    }
+
+    /**
+     * Returns the number of pages in this snapshot.
+     *
+     * @return the page count
+     */
+    int pageCount()
+    {
+        return pages.length;
+    }
+}
@@ -0,0 +1,181 @@
+package ca.bcit.comp2522.tests;
+
+import ca.bcit.comp2522.code.AgeIndex;
+import ca.bcit.comp2522.code.Creature;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Test driver for AgeIndex.
+ * Indexes creatures born on every day of several leap and common years, then rolls the index
+ * forward one day at a time from late 2023, through the leap year 2024, into 2025. Every day it
+ * checks each creature's age against Creature.calculateAgeYears(), and checks that agingUpToday()
+ * returns exactly the creatures whose age went up since the day before.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class AgeIndexTest
+{
+    private static final int[] BIRTH_YEARS = {1999, 2000, 2003, 2004, 2020, 2023};
+    private static final int START_YEAR = 2023;
+    private static final int START_MONTH = Calendar.DECEMBER;
+    private static final int START_DAY = 20;
+    private static final int DAYS = 400;
+    private static final int NOON = 12;
+    private static final int HEALTH = 100;
+
+    /**
+     * Program entry point.
+     * Exits with status 1 if any age or birthday list differs from Creature's rule.
+     *
+     * @param args command line arguments (not used)
+     */
+    public static void main(final String[] args)
+    {
+        final List<Creature> creatures;
+        final List<Calendar> births;
+        final List<Integer> handles;
+        final Calendar today;
+        final Calendar yesterday;
+        final AgeIndex index;
+        int ageMismatches;
+        int birthdayMismatches;
+        int birthdays;
+
+        creatures = new ArrayList<>();
+        births = new ArrayList<>();
+        handles = new ArrayList<>();
+
+        for (final int year : BIRTH_YEARS)
+        {
+            final Calendar birth;
+
+            birth = dateAtNoon(year, Calendar.JANUARY, 1);
+
+            while (birth.get(Calendar.YEAR) == year &&
+                    birth.before(dateAtNoon(START_YEAR, START_MONTH, START_DAY)))
+            {
+                creatures.add(new Creature("Born-" + year + "-" + birth.get(Calendar.DAY_OF_YEAR),
+                        birth.getTime(),
+                        HEALTH));
+                births.add((Calendar)birth.clone());
+                birth.add(Calendar.DAY_OF_YEAR, 1);
+            }
+        }
+
+        today = dateAtNoon(START_YEAR, START_MONTH, START_DAY);
+        yesterday = (Calendar)today.clone();
+        index = new AgeIndex(today);
+
+        for (final Creature creature : creatures)
+        {
+            handles.add(index.add(creature));
+        }
+
+        ageMismatches = countAgeMismatches(index, handles, births, today);
+        birthdayMismatches = 0;
+        birthdays = 0;
+
+        for (int day = 0; day < DAYS; day++)
+        {
+            final Set<Creature> expected;
+            final Set<Creature> actual;
+            final List<Creature> agingUp;
+
+            yesterday.setTime(today.getTime());
+            today.add(Calendar.DAY_OF_YEAR, 1);
+            index.rollover(today);
+
+            expected = Collections.newSetFromMap(new IdentityHashMap<>());
+            actual = Collections.newSetFromMap(new IdentityHashMap<>());
+            agingUp = index.agingUpToday();
+
+            for (int i = 0; i < creatures.size(); i++)
+            {
+                if (Creature.calculateAgeYears(today, births.get(i)) >
+                        Creature.calculateAgeYears(yesterday, births.get(i)))
+                {
+                    expected.add(creatures.get(i));
+                }
+            }
+
+            actual.addAll(agingUp);
+
+            if (agingUp.size() != actual.size() || !actual.equals(expected))
+            {
+                birthdayMismatches++;
+                System.out.println("agingUpToday() differs on day " + today.get(Calendar.DAY_OF_YEAR) +
+                        " of " + today.get(Calendar.YEAR) + ": expected " + expected.size() +
+                        ", got " + agingUp.size());
+            }
+
+            birthdays += expected.size();
+            ageMismatches += countAgeMismatches(index, handles, births, today);
+        }
+
+        System.out.println("Creatures: " + creatures.size() + ", days rolled: " + DAYS + ", birthdays: " + birthdays);
+        System.out.println("Age mismatches: " + ageMismatches + ", agingUpToday() mismatches: " + birthdayMismatches);
+
+        if (ageMismatches != 0 || birthdayMismatches != 0)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Counts the indexed creatures whose age differs from Creature.calculateAgeYears().
+     *
+     * @param index   the index
+     * @param handles the creatures' handles
+     * @param births  the creatures' birthdates, in handle order
+     * @param today   the index's current date
+     * @return the number of wrong ages
+     */
+    private static int countAgeMismatches(final AgeIndex index,
+                                          final List<Integer> handles,
+                                          final List<Calendar> births,
+                                          final Calendar today)
+    {
+        int wrong;
+
+        wrong = 0;
+
+        for (int i = 0; i < handles.size(); i++)
+        {
+            if (index.getAgeYears(handles.get(i)) != Creature.calculateAgeYears(today, births.get(i)))
+            {
+                wrong++;
+            }
+        }
+
+        return wrong;
+    }
+
+    /**
+     * Returns a Calendar for noon on the specified date, away from daylight-saving changes at midnight.
+     *
+     * @param year  the year
+     * @param month the month, as Calendar.JANUARY to Calendar.DECEMBER
+     * @param day   the day of the month
+     * @return the date at noon in the default time zone
+     */
+    private static Calendar dateAtNoon(final int year,
+                                       final int month,
+                                       final int day)
+    {
+        final Calendar date;
+
+        date = Calendar.getInstance();
+        date.clear();
+        date.set(year, month, day, NOON, 0, 0);
+
+        return date;
+    }
+}
@@ -0,0 +1,248 @@
+package ca.bcit.comp2522.tests;
+
+import ca.bcit.comp2522.code.Creature;
+import ca.bcit.comp2522.code.Dragon;
+import ca.bcit.comp2522.code.Elf;
+import ca.bcit.comp2522.code.LowFirePowerException;
+import ca.bcit.comp2522.code.LowManaException;
+import ca.bcit.comp2522.code.Orc;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+
+/**
+ * Test driver that checks the bytes allocated per call on the combat and rendering hot paths.
+ * Each operation is warmed up so the JIT compiler has optimized it, then run many times while
+ * the thread's allocation counter is read before and after. An operation fails if its average
+ * allocation is above the budget declared with it in HotPath.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class AllocationBudgetTest
+{
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    private static final int HEALTH = 100;
+    private static final int FIRE_POWER = 100;
+    private static final int MANA = 50;
+    private static final int RAGE = 30;
+    private static final long BIRTH_MILLIS = 946_684_800_000L;
+
+    private static final int DAMAGE = 1;
+    private static final int HEAL_AMOUNT = 1;
+    private static final int FIRE_POWER_RESTORE = 10;
+    private static final int MANA_RESTORE = 5;
+
+    private static volatile int sink;
+
+    /**
+     * A hot path and the most bytes it may allocate per call.
+     */
+    private enum HotPath
+    {
+        TAKE_DAMAGE(0L)
+        {
+            @Override
+            void run(final Fixture fixture)
+            {
+                fixture.target.takeDamage(DAMAGE);
+            }
+        },
+        HEAL(0L)
+        {
+            @Override
+            void run(final Fixture fixture)
+            {
+                fixture.target.heal(HEAL_AMOUNT);
+            }
+        },
+        BREATHE_FIRE(0L)
+        {
+            @Override
+            void run(final Fixture fixture) throws LowFirePowerException
+            {
+                fixture.dragon.restoreFirePower(FIRE_POWER_RESTORE);
+                fixture.dragon.breatheFire(fixture.target);
+            }
+        },
+        CAST_SPELL(0L)
+        {
+            @Override
+            void run(final Fixture fixture) throws LowManaException
+            {
+                fixture.elf.restoreMana(MANA_RESTORE);
+                fixture.elf.castSpell(fixture.target);
+            }
+        },
+        BERSERK(0L)
+        {
+            @Override
+            void run(final Fixture fixture)
+            {
+                fixture.orc.berserk(fixture.target);
+            }
+        },
+        AGE_YEARS(0L)
+        {
+            @Override
+            void run(final Fixture fixture)
+            {
+                sink = fixture.target.getAgeYears();
+            }
+        },
+        DRAGON_DETAILS(512L)
+        {
+            @Override
+            void run(final Fixture fixture)
+            {
+                sink = fixture.dragon.getDetails().length();
+            }
+        },
+        ELF_DETAILS(512L)
+        {
+            @Override
+            void run(final Fixture fixture)
+            {
+                sink = fixture.elf.getDetails().length();
+            }
+        },
+        ORC_DETAILS(512L)
+        {
+            @Override
+            void run(final Fixture fixture)
+            {
+                sink = fixture.orc.getDetails().length();
+            }
+        };
+
+        private final long budgetBytes;
+
+        /**
+         * Constructs a HotPath.
+         *
+         * @param budgetBytes the most bytes one call may allocate on average
+         */
+        HotPath(final long budgetBytes)
+        {
+            this.budgetBytes = budgetBytes;
+        }
+
+        /**
+         * Runs the operation once.
+         *
+         * @param fixture the creatures to operate on
+         * @throws LowFirePowerException if a dragon attack fails
+         * @throws LowManaException if an elf attack fails
+         */
+        abstract void run(Fixture fixture) throws LowFirePowerException, LowManaException;
+    }
+
+    /**
+     * Program entry point.
+     * Exits with status 1 if any operation allocates more than its budget.
+     *
+     * @param args command line arguments (not used)
+     * @throws LowFirePowerException if a dragon attack fails
+     * @throws LowManaException if an elf attack fails
+     */
+    public static void main(final String[] args) throws LowFirePowerException, LowManaException
+    {
+        final com.sun.management.ThreadMXBean threads;
+        final Fixture fixture;
+        boolean withinBudget;
+
+        threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        fixture = new Fixture();
+        withinBudget = true;
+
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        for (final HotPath path : HotPath.values())
+        {
+            final long bytesPerCall;
+            final boolean passed;
+
+            bytesPerCall = measure(threads, path, fixture);
+            passed = bytesPerCall <= path.budgetBytes;
+            withinBudget &= passed;
+
+            System.out.printf("%-16s %6d bytes/call (budget %d) %s%n",
+                    path,
+                    bytesPerCall,
+                    path.budgetBytes,
+                    passed ? "OK" : "OVER BUDGET");
+        }
+
+        if (!withinBudget)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Warms up an operation and returns the whole bytes it allocates per call.
+     *
+     * @param threads the source of this thread's allocation counter
+     * @param path    the operation to measure
+     * @param fixture the creatures to operate on
+     * @return the average bytes allocated per call, rounded down
+     * @throws LowFirePowerException if a dragon attack fails
+     * @throws LowManaException if an elf attack fails
+     */
+    private static long measure(final com.sun.management.ThreadMXBean threads,
+                                final HotPath path,
+                                final Fixture fixture) throws LowFirePowerException, LowManaException
+    {
+        final long threadId;
+        final long before;
+        final long after;
+
+        threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+        {
+            path.run(fixture);
+        }
+
+        before = threads.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < MEASURED_ITERATIONS; i++)
+        {
+            path.run(fixture);
+        }
+
+        after = threads.getThreadAllocatedBytes(threadId);
+
+        return (after - before) / MEASURED_ITERATIONS;
+    }
+
+    /**
+     * The creatures the hot paths operate on.
+     * The target starts at full health; its health settles at zero or full as damage and healing repeat.
+     */
+    private static final class Fixture
+    {
+        private final Creature target;
+        private final Dragon dragon;
+        private final Elf elf;
+        private final Orc orc;
+
+        /**
+         * Constructs a Fixture.
+         */
+        private Fixture()
+        {
+            final Date dateOfBirth;
+
+            dateOfBirth = new Date(BIRTH_MILLIS);
+
+            this.target = new Creature("Target", dateOfBirth, HEALTH);
+            this.dragon = new Dragon("Smolder", dateOfBirth, HEALTH, FIRE_POWER);
+            this.elf = new Elf("Elowen", dateOfBirth, HEALTH, MANA);
+            this.orc = new Orc("Gruk", dateOfBirth, HEALTH, RAGE);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package ca.bcit.comp2522.tests;
+
+/**
+ * A fixed-size log-linear histogram of latencies in nanoseconds.
+ * Values below SUB_BUCKETS are counted exactly; larger values are counted with
+ * about 1.5% precision, so recording never allocates.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int LONG_BITS = 64;
+    private static final int BUCKET_COUNT = (LONG_BITS - SUB_BUCKET_BITS + 2) * HALF_SUB_BUCKETS;
+
+    private final long[] counts;
+    private long total;
+    private long max;
+
+    /**
+     * Constructs an empty LatencyHistogram.
+     */
+    public LatencyHistogram()
+    {
+        this.counts = new long[BUCKET_COUNT];
+        this.total = 0L;
+        this.max = 0L;
+    }
+
+    /**
+     * Records one latency. Negative values are recorded as zero.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(final long nanos)
+    {
+        final long value;
+
+        value = Math.max(nanos, 0L);
+
+        counts[indexOf(value)]++;
+        total++;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds every value recorded in another histogram to this one.
+     *
+     * @param other the histogram to add
+     */
+    public void add(final LatencyHistogram other)
+    {
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            counts[i] += other.counts[i];
+        }
+
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return the count
+     */
+    public long getTotal()
+    {
+        return total;
+    }
+
+    /**
+     * Returns the largest value recorded.
+     *
+     * @return the maximum latency in nanoseconds
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Returns the latency at or below which the specified share of values fall.
+     *
+     * @param percentile the percentile (0 to 100)
+     * @return the latency in nanoseconds, or zero if nothing was recorded
+     */
+    public long percentile(final double percentile)
+    {
+        final long rank;
+        long seen;
+
+        if (total == 0L)
+        {
+            return 0L;
+        }
+
+        rank = Math.max(1L, (long)Math.ceil(percentile / 100.0 * total));
+        seen = 0L;
+
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            seen += counts[i];
+
+            if (seen >= rank)
+            {
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    /**
+     * Returns the bucket that counts the specified value.
+     *
+     * @param value the non-negative value
+     * @return the bucket index
+     */
+    private static int indexOf(final long value)
+    {
+        final int shift;
+
+        if (value < SUB_BUCKETS)
+        {
+            return (int)value;
+        }
+
+        shift = (LONG_BITS - 1 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+
+        return (shift + 1) * HALF_SUB_BUCKETS + (int)((value >>> shift) - HALF_SUB_BUCKETS);
+    }
+
+    /**
+     * Returns the largest value counted by the specified bucket.
+     *
+     * @param index the bucket index
+     * @return the bucket's upper bound
+     */
+    private static long highestValueIn(final int index)
+    {
+        final int shift;
+        final long subBucket;
+
+        if (index < SUB_BUCKETS)
+        {
+            return index;
+        }
+
+        shift = index / HALF_SUB_BUCKETS - 1;
+        subBucket = index % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,293 @@
+package ca.bcit.comp2522.tests;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * A load-test scenario read from a properties file.
+ * Describes the population each thread drives, the target operation rate,
+ * the mix of actions, and how long to run.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class LoadScenario
+{
+    private final String name;
+    private final int dragons;
+    private final int elves;
+    private final int orcs;
+    private final long targetRate;
+    private final double healFraction;
+    private final double restoreFraction;
+    private final int healAmount;
+    private final int restoreAmount;
+    private final int threads;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+
+    /**
+     * Constructs a LoadScenario from loaded properties.
+     *
+     * @param name       the scenario name used in the report
+     * @param properties the scenario settings
+     * @throws IllegalArgumentException if a setting is missing or invalid
+     */
+    public LoadScenario(final String name,
+                        final Properties properties)
+    {
+        this.name = name;
+        this.dragons = readInt(properties, "dragons", 0);
+        this.elves = readInt(properties, "elves", 0);
+        this.orcs = readInt(properties, "orcs", 0);
+        this.targetRate = readInt(properties, "targetRate", 1);
+        this.healFraction = readFraction(properties, "healFraction");
+        this.restoreFraction = readFraction(properties, "restoreFraction");
+        this.healAmount = readInt(properties, "healAmount", 0);
+        this.restoreAmount = readInt(properties, "restoreAmount", 0);
+        this.threads = readInt(properties, "threads", 1);
+        this.warmupSeconds = readInt(properties, "warmupSeconds", 0);
+        this.durationSeconds = readInt(properties, "durationSeconds", 1);
+
+        if (dragons + elves + orcs < 2)
+        {
+            throw new IllegalArgumentException("Population must have at least two creatures per thread.");
+        }
+
+        if (healFraction + restoreFraction > 1.0)
+        {
+            throw new IllegalArgumentException("healFraction + restoreFraction must not exceed 1.");
+        }
+    }
+
+    /**
+     * Reads a scenario from a properties file. The file name becomes the scenario name.
+     *
+     * @param file the scenario file
+     * @return the scenario
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a setting is missing or invalid
+     */
+    public static LoadScenario load(final Path file) throws IOException
+    {
+        final Properties properties;
+
+        properties = new Properties();
+
+        try (Reader reader = Files.newBufferedReader(file))
+        {
+            properties.load(reader);
+        }
+
+        return new LoadScenario(file.getFileName().toString().replaceFirst("\\.properties$", ""), properties);
+    }
+
+    /**
+     * Returns the scenario name.
+     *
+     * @return the name
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Returns the number of Dragons each thread creates.
+     *
+     * @return the dragons per thread
+     */
+    public int getDragons()
+    {
+        return dragons;
+    }
+
+    /**
+     * Returns the number of Elves each thread creates.
+     *
+     * @return the elves per thread
+     */
+    public int getElves()
+    {
+        return elves;
+    }
+
+    /**
+     * Returns the number of Orcs each thread creates.
+     *
+     * @return the orcs per thread
+     */
+    public int getOrcs()
+    {
+        return orcs;
+    }
+
+    /**
+     * Returns the target number of operations per second across all threads.
+     *
+     * @return the target rate
+     */
+    public long getTargetRate()
+    {
+        return targetRate;
+    }
+
+    /**
+     * Returns the share of operations that heal a creature.
+     *
+     * @return the heal fraction (0 to 1)
+     */
+    public double getHealFraction()
+    {
+        return healFraction;
+    }
+
+    /**
+     * Returns the share of operations that restore firepower or mana.
+     *
+     * @return the restore fraction (0 to 1)
+     */
+    public double getRestoreFraction()
+    {
+        return restoreFraction;
+    }
+
+    /**
+     * Returns the amount passed to heal().
+     *
+     * @return the heal amount
+     */
+    public int getHealAmount()
+    {
+        return healAmount;
+    }
+
+    /**
+     * Returns the amount passed to restoreFirePower() and restoreMana().
+     *
+     * @return the restore amount
+     */
+    public int getRestoreAmount()
+    {
+        return restoreAmount;
+    }
+
+    /**
+     * Returns the number of load threads.
+     *
+     * @return the thread count
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Returns how long to run before recording.
+     *
+     * @return the warm-up time in seconds
+     */
+    public int getWarmupSeconds()
+    {
+        return warmupSeconds;
+    }
+
+    /**
+     * Returns how long to record.
+     *
+     * @return the measured run time in seconds
+     */
+    public int getDurationSeconds()
+    {
+        return durationSeconds;
+    }
+
+    /**
+     * Reads an integer setting.
+     *
+     * @param properties the settings
+     * @param key        the setting name
+     * @param min        the smallest allowed value
+     * @return the setting value
+     * @throws IllegalArgumentException if the setting is missing, not a number, or below min
+     */
+    private static int readInt(final Properties properties,
+                               final String key,
+                               final int min)
+    {
+        final int value;
+
+        try
+        {
+            value = Integer.parseInt(require(properties, key).trim());
+        }
+        catch (final NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Setting " + key + " is not a whole number: " + properties.getProperty(key));
+        }
+
+        if (value < min)
+        {
+            throw new IllegalArgumentException("Setting " + key + " must be at least " + min + ": " + value);
+        }
+
+        return value;
+    }
+
+    /**
+     * Reads a fraction setting.
+     *
+     * @param properties the settings
+     * @param key        the setting name
+     * @return the setting value
+     * @throws IllegalArgumentException if the setting is missing, not a number, or not between 0 and 1
+     */
+    private static double readFraction(final Properties properties,
+                                       final String key)
+    {
+        final double value;
+
+        try
+        {
+            value = Double.parseDouble(require(properties, key).trim());
+        }
+        catch (final NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Setting " + key + " is not a number: " + properties.getProperty(key));
+        }
+
+        if (!(value >= 0.0 && value <= 1.0))
+        {
+            throw new IllegalArgumentException("Setting " + key + " out of range (0..1): " + value);
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns a setting that must be present.
+     *
+     * @param properties the settings
+     * @param key        the setting name
+     * @return the raw setting value
+     * @throws IllegalArgumentException if the setting is missing
+     */
+    private static String require(final Properties properties,
+                                  final String key)
+    {
+        final String value;
+
+        value = properties.getProperty(key);
+
+        if (value == null)
+        {
+            throw new IllegalArgumentException("Missing scenario setting: " + key);
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,421 @@
+package ca.bcit.comp2522.tests;
+
+import ca.bcit.comp2522.code.Attacks;
+import ca.bcit.comp2522.code.Creature;
+import ca.bcit.comp2522.code.Dragon;
+import ca.bcit.comp2522.code.Elf;
+import ca.bcit.comp2522.code.Orc;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Scenario-driven load test for Creature, Dragon, Elf, and Orc.
+ * Each thread owns its own population and issues attacks, heals, and restores on a fixed schedule.
+ * Latency is measured from when an operation was scheduled to start, not from when it actually
+ * started, so a stall is charged to every operation it delayed (no coordinated omission).
+ * The results are printed as JSON so runs from different builds can be compared.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class LoadTestRunner
+{
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long SPIN_THRESHOLD_NANOS = 50_000L;
+    private static final int START_HEALTH = 100;
+    private static final int START_FIRE_POWER = 100;
+    private static final int START_MANA = 50;
+    private static final int START_RAGE = 10;
+    private static final long DATE_OF_BIRTH_MILLIS = 0L;
+
+    private final LoadScenario scenario;
+
+    /**
+     * Constructs a LoadTestRunner for the specified scenario.
+     *
+     * @param scenario the scenario to run
+     */
+    public LoadTestRunner(final LoadScenario scenario)
+    {
+        this.scenario = scenario;
+    }
+
+    /**
+     * Program entry point.
+     * Runs the scenario file named on the command line and prints the JSON report,
+     * also writing it to the second argument if one is given.
+     *
+     * @param args the scenario file and an optional report file
+     * @throws IOException if the scenario cannot be read or the report cannot be written
+     * @throws InterruptedException if interrupted while waiting for the load threads
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException
+    {
+        final LoadScenario scenario;
+        final String report;
+
+        if (args.length < 1 || args.length > 2)
+        {
+            System.out.println("Usage: java " + LoadTestRunner.class.getName() + " <scenario.properties> [report.json]");
+            return;
+        }
+
+        scenario = LoadScenario.load(Paths.get(args[0]));
+        report = new LoadTestRunner(scenario).run();
+
+        System.out.println(report);
+
+        if (args.length == 2)
+        {
+            Files.writeString(Path.of(args[1]), report);
+        }
+    }
+
+    /**
+     * Runs the warm-up and the measured phase and returns the JSON report.
+     *
+     * @return the report
+     * @throws InterruptedException if interrupted while waiting for the load threads
+     */
+    public String run() throws InterruptedException
+    {
+        final Worker[] workers;
+        final Thread[] threads;
+        final long[] gcBefore;
+        final long start;
+        final long end;
+        final LatencyHistogram latencies;
+        long operations;
+        long failedAttacks;
+
+        workers = new Worker[scenario.getThreads()];
+        threads = new Thread[scenario.getThreads()];
+
+        for (int t = 0; t < workers.length; t++)
+        {
+            workers[t] = new Worker(t);
+        }
+
+        runPhase(workers, threads, scenario.getWarmupSeconds(), false);
+
+        gcBefore = gcTotals();
+        start = System.nanoTime();
+        runPhase(workers, threads, scenario.getDurationSeconds(), true);
+        end = System.nanoTime();
+
+        latencies = new LatencyHistogram();
+        operations = 0L;
+        failedAttacks = 0L;
+
+        for (final Worker worker : workers)
+        {
+            latencies.add(worker.latencies);
+            operations += worker.operations;
+            failedAttacks += worker.failedAttacks;
+        }
+
+        return report(latencies, operations, failedAttacks, end - start, gcBefore);
+    }
+
+    /**
+     * Runs every worker for the specified number of seconds and waits for them to finish.
+     *
+     * @param workers the workers
+     * @param threads the array to hold the worker threads
+     * @param seconds how long to run
+     * @param record  whether to record results
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private void runPhase(final Worker[] workers,
+                          final Thread[] threads,
+                          final int seconds,
+                          final boolean record) throws InterruptedException
+    {
+        final long start;
+        final long end;
+
+        start = System.nanoTime();
+        end = start + seconds * NANOS_PER_SECOND;
+
+        for (int t = 0; t < workers.length; t++)
+        {
+            final Worker worker;
+
+            worker = workers[t];
+            threads[t] = new Thread(() -> worker.run(start, end, record), "load-" + t);
+            threads[t].start();
+        }
+
+        for (final Thread thread : threads)
+        {
+            thread.join();
+        }
+    }
+
+    /**
+     * Builds the JSON report.
+     *
+     * @param latencies     the combined latency histogram
+     * @param operations    the number of operations completed
+     * @param failedAttacks the number of attacks that threw a Low*Exception
+     * @param elapsedNanos  the length of the measured phase
+     * @param gcBefore      the collection counts and times before the measured phase
+     * @return the report
+     */
+    private String report(final LatencyHistogram latencies,
+                          final long operations,
+                          final long failedAttacks,
+                          final long elapsedNanos,
+                          final long[] gcBefore)
+    {
+        final StringBuilder json;
+        final List<GarbageCollectorMXBean> collectors;
+
+        json = new StringBuilder();
+        collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+        json.append("{\n");
+        json.append("  \"scenario\": \"").append(scenario.getName()).append("\",\n");
+        json.append("  \"javaVersion\": \"").append(System.getProperty("java.version")).append("\",\n");
+        json.append("  \"threads\": ").append(scenario.getThreads()).append(",\n");
+        json.append("  \"targetRate\": ").append(scenario.getTargetRate()).append(",\n");
+        json.append("  \"durationSeconds\": ").append(scenario.getDurationSeconds()).append(",\n");
+        json.append("  \"operations\": ").append(operations).append(",\n");
+        json.append("  \"opsPerSecond\": ").append(String.format(Locale.ROOT, "%.1f", (double)operations * NANOS_PER_SECOND / elapsedNanos)).append(",\n");
+        json.append("  \"failedAttacks\": ").append(failedAttacks).append(",\n");
+        json.append("  \"latencyNanos\": {");
+        json.append("\"p50\": ").append(latencies.percentile(50.0)).append(", ");
+        json.append("\"p99\": ").append(latencies.percentile(99.0)).append(", ");
+        json.append("\"p999\": ").append(latencies.percentile(99.9)).append(", ");
+        json.append("\"max\": ").append(latencies.getMax()).append("},\n");
+        json.append("  \"gc\": [");
+
+        for (int i = 0; i < collectors.size(); i++)
+        {
+            final GarbageCollectorMXBean collector;
+
+            collector = collectors.get(i);
+
+            if (i > 0)
+            {
+                json.append(", ");
+            }
+
+            json.append("{\"name\": \"").append(collector.getName()).append("\", ");
+            json.append("\"collections\": ").append(collector.getCollectionCount() - gcBefore[i * 2]).append(", ");
+            json.append("\"timeMillis\": ").append(collector.getCollectionTime() - gcBefore[i * 2 + 1]).append("}");
+        }
+
+        json.append("]\n}");
+
+        return json.toString();
+    }
+
+    /**
+     * Returns the collection count and time of every garbage collector, in pairs.
+     *
+     * @return the current totals
+     */
+    private static long[] gcTotals()
+    {
+        final List<GarbageCollectorMXBean> collectors;
+        final long[] totals;
+
+        collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        totals = new long[collectors.size() * 2];
+
+        for (int i = 0; i < collectors.size(); i++)
+        {
+            totals[i * 2] = collectors.get(i).getCollectionCount();
+            totals[i * 2 + 1] = collectors.get(i).getCollectionTime();
+        }
+
+        return totals;
+    }
+
+    /**
+     * Waits until System.nanoTime() reaches the specified time.
+     * Parks for long waits and spins for the last few microseconds.
+     *
+     * @param deadline the time to wait for
+     */
+    private static void waitUntil(final long deadline)
+    {
+        long remaining;
+
+        remaining = deadline - System.nanoTime();
+
+        while (remaining > 0L)
+        {
+            if (remaining > SPIN_THRESHOLD_NANOS)
+            {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            }
+            else
+            {
+                Thread.onSpinWait();
+            }
+
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    /**
+     * One load thread and the population it owns.
+     * No creature is shared between workers, so no locking is needed.
+     */
+    private final class Worker
+    {
+        private final List<Creature> creatures;
+        private final List<Creature> restorable;
+        private final SplittableRandom random;
+        private final long intervalNanos;
+        private final LatencyHistogram latencies;
+        private long operations;
+        private long failedAttacks;
+
+        /**
+         * Constructs a Worker and its population.
+         *
+         * @param id the worker number, used in creature names and as the random seed
+         */
+        private Worker(final int id)
+        {
+            final Date dateOfBirth;
+
+            this.creatures = new ArrayList<>();
+            this.restorable = new ArrayList<>();
+            this.random = new SplittableRandom(id);
+            this.intervalNanos = Math.max(1L, NANOS_PER_SECOND * scenario.getThreads() / scenario.getTargetRate());
+            this.latencies = new LatencyHistogram();
+
+            dateOfBirth = new Date(DATE_OF_BIRTH_MILLIS);
+
+            for (int i = 0; i < scenario.getDragons(); i++)
+            {
+                final Dragon dragon;
+
+                dragon = new Dragon("Dragon-" + id + "-" + i, dateOfBirth, START_HEALTH, START_FIRE_POWER);
+                creatures.add(dragon);
+                restorable.add(dragon);
+            }
+
+            for (int i = 0; i < scenario.getElves(); i++)
+            {
+                final Elf elf;
+
+                elf = new Elf("Elf-" + id + "-" + i, dateOfBirth, START_HEALTH, START_MANA);
+                creatures.add(elf);
+                restorable.add(elf);
+            }
+
+            for (int i = 0; i < scenario.getOrcs(); i++)
+            {
+                creatures.add(new Orc("Orc-" + id + "-" + i, dateOfBirth, START_HEALTH, START_RAGE));
+            }
+        }
+
+        /**
+         * Issues operations on schedule until the end time.
+         *
+         * @param start  the time the first operation is scheduled for
+         * @param end    the time to stop scheduling operations
+         * @param record whether to record latencies and counts
+         */
+        private void run(final long start,
+                         final long end,
+                         final boolean record)
+        {
+            long intended;
+
+            intended = start;
+
+            while (intended < end)
+            {
+                final boolean attackFailed;
+
+                waitUntil(intended);
+                attackFailed = operate();
+
+                if (record)
+                {
+                    latencies.record(System.nanoTime() - intended);
+                    operations++;
+
+                    if (attackFailed)
+                    {
+                        failedAttacks++;
+                    }
+                }
+
+                intended += intervalNanos;
+            }
+        }
+
+        /**
+         * Performs one randomly chosen operation.
+         *
+         * @return true if the operation was an attack that failed for lack of resource
+         */
+        private boolean operate()
+        {
+            final double roll;
+
+            roll = random.nextDouble();
+
+            if (roll < scenario.getHealFraction())
+            {
+                pick(creatures).heal(scenario.getHealAmount());
+                return false;
+            }
+
+            if (roll < scenario.getHealFraction() + scenario.getRestoreFraction() && !restorable.isEmpty())
+            {
+                restore(pick(restorable));
+                return false;
+            }
+
+            return !Attacks.attack(pick(creatures), pick(creatures));
+        }
+
+        /**
+         * Restores a Dragon's firepower or an Elf's mana.
+         *
+         * @param creature the Dragon or Elf to restore
+         */
+        private void restore(final Creature creature)
+        {
+            if (creature instanceof Dragon)
+            {
+                ((Dragon)creature).restoreFirePower(scenario.getRestoreAmount());
+            }
+            else
+            {
+                ((Elf)creature).restoreMana(scenario.getRestoreAmount());
+            }
+        }
+
+        /**
+         * Returns a random creature from a list.
+         *
+         * @param from the list to pick from
+         * @return the chosen creature
+         */
+        private Creature pick(final List<Creature> from)
+        {
+            return from.get(random.nextInt(from.size()));
+        }
+    }
+}
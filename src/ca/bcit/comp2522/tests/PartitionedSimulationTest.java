@@ -0,0 +1,141 @@
+package ca.bcit.comp2522.tests;
+
+import ca.bcit.comp2522.code.Attacks;
+import ca.bcit.comp2522.code.Creature;
+import ca.bcit.comp2522.code.CreatureType;
+import ca.bcit.comp2522.code.PartitionedSimulation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test driver for PartitionedSimulation.
+ * Runs the same random battle across several partition JVMs and in this process,
+ * and checks that every creature ends with the same health and resource.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class PartitionedSimulationTest
+{
+    private static final int PARTITIONS = 3;
+    private static final int CREATURES = 300;
+    private static final int TICKS = 50;
+    private static final int ATTACKS_PER_TICK = 200;
+    private static final long SEED = 2522L;
+
+    private static final int INVALID_HEALTH = 500;
+
+    /**
+     * Program entry point.
+     * Exits with status 1 if the partitioned run differs from the single-process run,
+     * or if an invalid creature is accepted or disturbs the creatures spawned after it.
+     *
+     * @param args command line arguments (not used)
+     * @throws IOException if a partition cannot be started or reached
+     * @throws InterruptedException if interrupted while shutting the partitions down
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException
+    {
+        final Random random;
+        final List<Creature> local;
+        final PartitionedSimulation partitioned;
+        final int[] localHealth;
+        final int[] localResources;
+        final boolean rejected;
+        final boolean identical;
+
+        random = new Random(SEED);
+        local = new ArrayList<>();
+        partitioned = PartitionedSimulation.launch(PARTITIONS);
+
+        try
+        {
+            for (int i = 0; i < CREATURES; i++)
+            {
+                final Creature creature;
+
+                creature = RandomCreatures.create(random, i);
+                local.add(creature);
+                partitioned.spawn(CreatureType.of(creature),
+                        creature.getDateOfBirth(),
+                        creature.getHealth(),
+                        CreatureType.resourceOf(creature));
+            }
+
+            rejected = rejectsInvalidSpawn(partitioned);
+
+            for (int t = 0; t < TICKS; t++)
+            {
+                final int[] attackers;
+                final int[] targets;
+
+                attackers = new int[ATTACKS_PER_TICK];
+                targets = new int[ATTACKS_PER_TICK];
+
+                for (int a = 0; a < ATTACKS_PER_TICK; a++)
+                {
+                    attackers[a] = random.nextInt(CREATURES);
+                    targets[a] = random.nextInt(CREATURES);
+                    Attacks.attack(local.get(attackers[a]), local.get(targets[a]));
+                }
+
+                partitioned.tick(attackers, targets);
+            }
+
+            localHealth = new int[CREATURES];
+            localResources = new int[CREATURES];
+
+            for (int i = 0; i < CREATURES; i++)
+            {
+                localHealth[i] = local.get(i).getHealth();
+                localResources[i] = CreatureType.resourceOf(local.get(i));
+            }
+
+            identical = Arrays.equals(localHealth, partitioned.getHealth()) &&
+                    Arrays.equals(localResources, partitioned.getResources());
+        }
+        finally
+        {
+            partitioned.close();
+        }
+
+        System.out.println("Partitions: " + PARTITIONS + ", creatures: " + CREATURES + ", ticks: " + TICKS);
+        System.out.println("Invalid spawn rejected without an id: " + rejected);
+        System.out.println("Identical to single-process run: " + identical);
+
+        if (!rejected || !identical)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Tries to spawn an Orc with out-of-range health, which must be rejected before it gets an id.
+     * The ticks that follow then check that no creature was shifted to the wrong id.
+     *
+     * @param partitioned the simulation
+     * @return true if the spawn was rejected and the creature count is unchanged
+     */
+    private static boolean rejectsInvalidSpawn(final PartitionedSimulation partitioned)
+    {
+        final int sizeBefore;
+
+        sizeBefore = partitioned.size();
+
+        try
+        {
+            partitioned.spawn(CreatureType.ORC, new Date(), INVALID_HEALTH, 0);
+            return false;
+        }
+        catch (final IllegalArgumentException e)
+        {
+            return partitioned.size() == sizeBefore;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package ca.bcit.comp2522.tests;
+
+import ca.bcit.comp2522.code.Creature;
+import ca.bcit.comp2522.code.CreatureType;
+import ca.bcit.comp2522.code.PopulationAggregate;
+import ca.bcit.comp2522.code.PopulationColumns;
+import ca.bcit.comp2522.code.PopulationQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Test driver for PopulationQuery.
+ * Builds a random population, some of it dead, and runs queries for every type, with and
+ * without alive(), under a range of where() conditions. Each count, sum, minimum, maximum,
+ * and average is checked against a plain loop over the per-object getters.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class PopulationQueryTest
+{
+    private static final int CREATURES = 50_000;
+    private static final int DEAD_ONE_IN = 4;
+    private static final long SEED = 2522L;
+
+    private static final CreatureType[] TYPES = {null, CreatureType.DRAGON, CreatureType.ELF, CreatureType.ORC};
+    private static final PopulationQuery.Column[] CONDITION_COLUMNS = PopulationQuery.Column.values();
+    private static final int[] CONDITION_VALUES = {0, 20, 50};
+
+    /**
+     * Program entry point.
+     * Exits with status 1 if any query result differs from the getter loop.
+     *
+     * @param args command line arguments (not used)
+     */
+    public static void main(final String[] args)
+    {
+        final List<Creature> creatures;
+        final Random random;
+        final PopulationColumns columns;
+        int queries;
+        int mismatches;
+
+        creatures = new ArrayList<>();
+        random = new Random(SEED);
+
+        for (int i = 0; i < CREATURES; i++)
+        {
+            final Creature creature;
+
+            creature = RandomCreatures.create(random, i);
+
+            if (random.nextInt(DEAD_ONE_IN) == 0)
+            {
+                creature.takeDamage(creature.getHealth());
+            }
+
+            creatures.add(creature);
+        }
+
+        columns = new PopulationColumns(creatures);
+        queries = 0;
+        mismatches = 0;
+
+        for (final CreatureType type : TYPES)
+        {
+            for (final boolean aliveOnly : new boolean[]{false, true})
+            {
+                for (final PopulationQuery.Column column : PopulationQuery.Column.values())
+                {
+                    mismatches += check(columns, creatures, type, aliveOnly, null, null, 0, column);
+                    queries++;
+
+                    for (final PopulationQuery.Column conditionColumn : CONDITION_COLUMNS)
+                    {
+                        for (final PopulationQuery.Comparison comparison : PopulationQuery.Comparison.values())
+                        {
+                            for (final int value : CONDITION_VALUES)
+                            {
+                                mismatches += check(columns, creatures, type, aliveOnly,
+                                        conditionColumn, comparison, value, column);
+                                queries++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        for (final PopulationQuery.Column column : PopulationQuery.Column.values())
+        {
+            final Map<CreatureType, PopulationAggregate> byType;
+
+            byType = PopulationQuery.over(columns).alive().aggregateByType(column);
+
+            for (final CreatureType type : TYPES)
+            {
+                if (type != null &&
+                        !expected(creatures, type, true, null, null, 0, column).matches(byType.get(type)))
+                {
+                    mismatches++;
+                    System.out.println("Mismatch: aggregateByType " + column + " for " + type);
+                }
+
+                queries++;
+            }
+        }
+
+        System.out.println("Creatures: " + CREATURES + ", queries: " + queries + ", mismatches: " + mismatches);
+        System.out.println("Agrees with per-object getters: " + (mismatches == 0));
+
+        if (mismatches != 0)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs one query and compares its count and aggregate with the getter loop.
+     *
+     * @param columns         the population's columns
+     * @param creatures       the population
+     * @param type            the type to include, or null for every type
+     * @param aliveOnly       true to add alive()
+     * @param conditionColumn the column of the where() condition, or null for none
+     * @param comparison      the comparison of the where() condition
+     * @param value           the value of the where() condition
+     * @param column          the column to aggregate
+     * @return 1 if the query disagreed with the getters, 0 otherwise
+     */
+    private static int check(final PopulationColumns columns,
+                             final List<Creature> creatures,
+                             final CreatureType type,
+                             final boolean aliveOnly,
+                             final PopulationQuery.Column conditionColumn,
+                             final PopulationQuery.Comparison comparison,
+                             final int value,
+                             final PopulationQuery.Column column)
+    {
+        final PopulationQuery query;
+        final Expected expected;
+
+        query = PopulationQuery.over(columns);
+
+        if (type != null)
+        {
+            query.ofType(type);
+        }
+
+        if (aliveOnly)
+        {
+            query.alive();
+        }
+
+        if (conditionColumn != null)
+        {
+            query.where(conditionColumn, comparison, value);
+        }
+
+        expected = expected(creatures, type, aliveOnly, conditionColumn, comparison, value, column);
+
+        if (expected.matches(query.aggregate(column)) && query.count() == expected.count)
+        {
+            return 0;
+        }
+
+        System.out.println("Mismatch: type=" + type + ", alive=" + aliveOnly +
+                ", where " + conditionColumn + " " + comparison + " " + value + ", aggregate " + column);
+
+        return 1;
+    }
+
+    /**
+     * Works out a query's expected aggregate with the per-object getters.
+     *
+     * @param creatures       the population
+     * @param type            the type to include, or null for every type
+     * @param aliveOnly       true to include only living creatures
+     * @param conditionColumn the column of the where() condition, or null for none
+     * @param comparison      the comparison of the where() condition
+     * @param value           the value of the where() condition
+     * @param column          the column to aggregate
+     * @return the expected count, sum, minimum, and maximum
+     */
+    private static Expected expected(final List<Creature> creatures,
+                                     final CreatureType type,
+                                     final boolean aliveOnly,
+                                     final PopulationQuery.Column conditionColumn,
+                                     final PopulationQuery.Comparison comparison,
+                                     final int value,
+                                     final PopulationQuery.Column column)
+    {
+        final Expected expected;
+
+        expected = new Expected();
+
+        for (final Creature creature : creatures)
+        {
+            if ((type == null || CreatureType.of(creature) == type) &&
+                    (!aliveOnly || creature.isAlive()) &&
+                    (conditionColumn == null || compare(valueOf(creature, conditionColumn), comparison, value)))
+            {
+                expected.add(valueOf(creature, column));
+            }
+        }
+
+        return expected;
+    }
+
+    /**
+     * Reads a column's value from a creature with its getter.
+     *
+     * @param creature the creature
+     * @param column   the column
+     * @return the creature's health, resource, or age in years
+     */
+    private static int valueOf(final Creature creature,
+                               final PopulationQuery.Column column)
+    {
+        switch (column)
+        {
+            case HEALTH:
+                return creature.getHealth();
+            case RESOURCE:
+                return CreatureType.resourceOf(creature);
+            default:
+                return creature.getAgeYears();
+        }
+    }
+
+    /**
+     * Compares a value with a constant.
+     *
+     * @param actual     the value
+     * @param comparison the comparison
+     * @param value      the constant
+     * @return true if the comparison holds, false otherwise
+     */
+    private static boolean compare(final int actual,
+                                   final PopulationQuery.Comparison comparison,
+                                   final int value)
+    {
+        switch (comparison)
+        {
+            case LESS:
+                return actual < value;
+            case LESS_OR_EQUAL:
+                return actual <= value;
+            case EQUAL:
+                return actual == value;
+            case NOT_EQUAL:
+                return actual != value;
+            case GREATER_OR_EQUAL:
+                return actual >= value;
+            default:
+                return actual > value;
+        }
+    }
+
+    /**
+     * The count, sum, minimum, and maximum worked out by a getter loop.
+     */
+    private static final class Expected
+    {
+        private long count;
+        private long sum;
+        private int min;
+        private int max;
+
+        /**
+         * Constructs an Expected with no values, matching an aggregate of no rows.
+         */
+        private Expected()
+        {
+            this.count = 0L;
+            this.sum = 0L;
+            this.min = Integer.MAX_VALUE;
+            this.max = Integer.MIN_VALUE;
+        }
+
+        /**
+         * Adds a value.
+         *
+         * @param value the value
+         */
+        private void add(final int value)
+        {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        /**
+         * Checks an aggregate against these values. A missing aggregate matches an empty result.
+         *
+         * @param actual the aggregate returned by the query, or null
+         * @return true if count, sum, minimum, maximum, and average all agree, false otherwise
+         */
+        private boolean matches(final PopulationAggregate actual)
+        {
+            final double average;
+
+            if (actual == null)
+            {
+                return count == 0;
+            }
+
+            average = count == 0 ? Double.NaN : (double)sum / count;
+
+            return actual.getCount() == count &&
+                    actual.getSum() == sum &&
+                    actual.getMin() == min &&
+                    actual.getMax() == max &&
+                    Double.compare(actual.getAverage(), average) == 0;
+        }
+    }
+}
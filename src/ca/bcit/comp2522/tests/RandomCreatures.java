@@ -0,0 +1,61 @@
+package ca.bcit.comp2522.tests;
+
+import ca.bcit.comp2522.code.Creature;
+import ca.bcit.comp2522.code.Dragon;
+import ca.bcit.comp2522.code.Elf;
+import ca.bcit.comp2522.code.Orc;
+
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Creates random Dragons, Elves, and Orcs for the simulation test drivers.
+ * The same seed always gives the same creatures, apart from dates of birth near the present.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+final class RandomCreatures
+{
+    private static final int MIN_HEALTH = 1;
+    private static final int MAX_HEALTH = 100;
+    private static final int MAX_FIRE_POWER = 100;
+    private static final int MAX_MANA = 50;
+    private static final int MAX_RAGE = 30;
+    private static final int TYPE_COUNT = 3;
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private RandomCreatures()
+    {
+    }
+
+    /**
+     * Creates a random Dragon, Elf, or Orc with random health and resource.
+     *
+     * @param random the random number generator
+     * @param id     the creature number, used in its name
+     * @return the new creature
+     */
+    static Creature create(final Random random,
+                           final int id)
+    {
+        final Date dateOfBirth;
+        final int health;
+
+        dateOfBirth = new Date(Math.abs(random.nextLong()) % System.currentTimeMillis());
+        health = MIN_HEALTH + random.nextInt(MAX_HEALTH);
+
+        switch (random.nextInt(TYPE_COUNT))
+        {
+            case 0:
+                return new Dragon("Dragon-" + id, dateOfBirth, health, random.nextInt(MAX_FIRE_POWER + 1));
+            case 1:
+                return new Elf("Elf-" + id, dateOfBirth, health, random.nextInt(MAX_MANA + 1));
+            default:
+                return new Orc("Orc-" + id, dateOfBirth, health, random.nextInt(MAX_RAGE + 1));
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package ca.bcit.comp2522.tests;
+
+import ca.bcit.comp2522.code.Attacks;
+import ca.bcit.comp2522.code.Creature;
+import ca.bcit.comp2522.code.CreatureType;
+import ca.bcit.comp2522.code.TickPipeline;
+import ca.bcit.comp2522.code.World;
+import ca.bcit.comp2522.code.WorldSnapshot;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Test driver for TickPipeline.
+ * Runs a random battle through the pipeline, persisting each tick's events to a temporary file,
+ * then replays the same attacks one tick at a time on a second World and checks that every
+ * creature ends with the same health and resource, and that ticks were persisted in order.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class TickPipelineTest
+{
+    private static final int CREATURES = 200;
+    private static final int TICKS = 500;
+    private static final int ATTACKS_PER_TICK = 20;
+    private static final int QUEUE_CAPACITY = 8;
+    private static final long SEED = 2522L;
+
+    /**
+     * Program entry point.
+     * Exits with status 1 if the pipelined run differs from the sequential replay.
+     *
+     * @param args command line arguments (not used)
+     * @throws IOException if the events file cannot be written
+     * @throws InterruptedException if interrupted while the pipeline runs
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException
+    {
+        final World pipelined;
+        final World sequential;
+        final Path eventsFile;
+        final TickPipeline pipeline;
+        final long[] lastPersisted;
+        final long[] eventCount;
+        final long startNanos;
+        final long elapsedNanos;
+        boolean identical;
+
+        pipelined = newWorld();
+        sequential = newWorld();
+        eventsFile = Files.createTempFile("ticks", ".log");
+        lastPersisted = new long[]{-1L};
+        eventCount = new long[1];
+
+        try (BufferedWriter out = Files.newBufferedWriter(eventsFile, StandardCharsets.UTF_8))
+        {
+            pipeline = new TickPipeline(pipelined,
+                    TickPipelineTest::decide,
+                    (tick, events) ->
+                    {
+                        if (tick != lastPersisted[0] + 1)
+                        {
+                            throw new IOException("Tick " + tick + " persisted after tick " + lastPersisted[0]);
+                        }
+
+                        for (final String event : events)
+                        {
+                            out.write(tick + " " + event);
+                            out.newLine();
+                        }
+
+                        out.flush();
+                        lastPersisted[0] = tick;
+                        eventCount[0] += events.size();
+                    },
+                    QUEUE_CAPACITY);
+
+            startNanos = System.nanoTime();
+            pipeline.run(TICKS);
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+        finally
+        {
+            Files.deleteIfExists(eventsFile);
+        }
+
+        for (long tick = 0L; tick < TICKS; tick++)
+        {
+            replay(sequential, tick);
+        }
+
+        identical = lastPersisted[0] == TICKS - 1;
+
+        for (int i = 0; i < CREATURES; i++)
+        {
+            identical &= pipelined.get(i).getHealth() == sequential.get(i).getHealth() &&
+                    CreatureType.resourceOf(pipelined.get(i)) == CreatureType.resourceOf(sequential.get(i));
+        }
+
+        System.out.println("Creatures: " + CREATURES + ", ticks: " + TICKS + ", events: " + eventCount[0] +
+                ", elapsed: " + elapsedNanos / 1_000_000L + " ms");
+
+        for (final TickPipeline.StageMetrics metrics : pipeline.getStageMetrics())
+        {
+            System.out.println(metrics);
+        }
+
+        System.out.println("Identical to sequential run: " + identical);
+
+        if (!identical)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Chooses random attacks for a tick. The choice depends only on the tick and the World size,
+     * so the sequential replay makes the same attacks.
+     *
+     * @param tick     the tick number
+     * @param snapshot the latest published World state
+     * @return the tick's attacks
+     */
+    private static TickPipeline.TickActions decide(final long tick,
+                                                   final WorldSnapshot snapshot)
+    {
+        final Random random;
+        final int[] attackers;
+        final int[] targets;
+
+        random = new Random(SEED + tick);
+        attackers = new int[ATTACKS_PER_TICK];
+        targets = new int[ATTACKS_PER_TICK];
+
+        for (int a = 0; a < ATTACKS_PER_TICK; a++)
+        {
+            attackers[a] = random.nextInt(snapshot.size());
+            targets[a] = random.nextInt(snapshot.size());
+        }
+
+        return new TickPipeline.TickActions(attackers, targets);
+    }
+
+    /**
+     * Applies one tick's attacks directly, without the pipeline.
+     *
+     * @param world the World to change
+     * @param tick  the tick number
+     */
+    private static void replay(final World world,
+                               final long tick)
+    {
+        final Random random;
+
+        random = new Random(SEED + tick);
+
+        for (int a = 0; a < ATTACKS_PER_TICK; a++)
+        {
+            final Creature attacker;
+            final Creature target;
+
+            attacker = world.get(random.nextInt(CREATURES));
+            target = world.get(random.nextInt(CREATURES));
+
+            Attacks.attack(attacker, target);
+        }
+
+        world.publish();
+    }
+
+    /**
+     * Creates a World of random Dragons, Elves, and Orcs, the same every time, and publishes it.
+     *
+     * @return the new World
+     */
+    private static World newWorld()
+    {
+        final Random random;
+        final World world;
+
+        random = new Random(SEED);
+        world = new World();
+
+        for (int i = 0; i < CREATURES; i++)
+        {
+            world.add(RandomCreatures.create(random, i));
+        }
+
+        world.publish();
+
+        return world;
+    }
+}
@@ -0,0 +1,255 @@
+package ca.bcit.comp2522.tests;
+
+import ca.bcit.comp2522.code.Creature;
+import ca.bcit.comp2522.code.CreatureSnapshot;
+import ca.bcit.comp2522.code.CreatureType;
+import ca.bcit.comp2522.code.Orc;
+import ca.bcit.comp2522.code.TieredCreatureStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Test driver for TieredCreatureStore.
+ * Evicts random creatures and a dead Orc to the cold tier, reads them back, promotes and changes
+ * them, then evicts and reads them again, checking at every step that each creature keeps its
+ * state. Runs once with no cold cache and once with a cache smaller than the population,
+ * so cached and rehydrated reads are both covered.
+ *
+ * @author Ziad Malik
+ * @author Brian Lau
+ * @version 1.0
+ */
+public class TieredCreatureStoreTest
+{
+    private static final int CREATURES = 50;
+    private static final int[] CACHE_CAPACITIES = {0, 4};
+    private static final long SEED = 2522L;
+    private static final long SEGMENT_BYTES = 512L;
+
+    private static final int FALLEN_HEALTH = 10;
+    private static final int FALLEN_RAGE = 12;
+    private static final int DAMAGE = 1;
+    private static final long MAX_IDLE_MILLIS = 0L;
+
+    /**
+     * Program entry point.
+     * Exits with status 1 if any creature loses or changes state while moving between tiers.
+     *
+     * @param args command line arguments (not used)
+     * @throws IOException if the cold segments cannot be written or read
+     */
+    public static void main(final String[] args) throws IOException
+    {
+        boolean passed;
+
+        passed = true;
+
+        for (final int cacheCapacity : CACHE_CAPACITIES)
+        {
+            final boolean intact;
+
+            intact = run(cacheCapacity);
+            System.out.println("Cache capacity " + cacheCapacity + ", state kept across tiers: " + intact);
+            passed &= intact;
+        }
+
+        if (!passed)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the evict, read, promote, change, and evict cycle with one cache capacity.
+     *
+     * @param cacheCapacity the number of cold snapshots the store keeps on the heap
+     * @return true if every creature kept its state, false otherwise
+     * @throws IOException if the cold segments cannot be written or read
+     */
+    private static boolean run(final int cacheCapacity) throws IOException
+    {
+        final Path directory;
+        final List<Creature> expected;
+        final Random random;
+        final Creature fallen;
+        long now;
+        boolean intact;
+
+        directory = Files.createTempDirectory("tiered");
+        expected = new ArrayList<>();
+        random = new Random(SEED);
+        fallen = new Orc("Fallen", new Date(0L), FALLEN_HEALTH, FALLEN_RAGE);
+        fallen.takeDamage(FALLEN_HEALTH);
+        now = 0L;
+        intact = true;
+
+        for (int i = 0; i < CREATURES; i++)
+        {
+            expected.add(RandomCreatures.create(random, i));
+        }
+
+        expected.add(fallen);
+
+        try
+        {
+            final TieredCreatureStore store;
+
+            store = new TieredCreatureStore(directory, cacheCapacity, SEGMENT_BYTES);
+
+            try
+            {
+                for (final Creature creature : expected)
+                {
+                    store.put(creature, now);
+                }
+
+                intact &= store.evict(++now, MAX_IDLE_MILLIS) == expected.size();
+                intact &= readsMatch(store, expected, now);
+
+                for (int i = 0; i < expected.size(); i++)
+                {
+                    final Creature promoted;
+
+                    promoted = store.promote(expected.get(i).getName(), now);
+
+                    intact &= promoted != expected.get(i) &&
+                            matches(new SnapshotOf(promoted), expected.get(i)) &&
+                            store.promote(promoted.getName(), now) == promoted;
+
+                    if (promoted.getHealth() > DAMAGE)
+                    {
+                        promoted.takeDamage(DAMAGE);
+                    }
+
+                    expected.set(i, promoted);
+                }
+
+                intact &= !fallen.isAlive() && !store.promote(fallen.getName(), now).isAlive();
+                intact &= store.hotSize() == expected.size() && store.coldSize() == 0;
+                intact &= store.evict(++now, MAX_IDLE_MILLIS) == expected.size();
+                intact &= readsMatch(store, expected, now);
+            }
+            finally
+            {
+                store.close();
+            }
+        }
+        finally
+        {
+            deleteDirectory(directory);
+        }
+
+        return intact;
+    }
+
+    /**
+     * Reads every creature twice with get() and checks both reads against the expected state.
+     * Reading twice makes a store with a small cache rehydrate creatures it has already dropped.
+     *
+     * @param store    the store to read
+     * @param expected the creatures whose state the store should hold
+     * @param now      the current time in milliseconds
+     * @return true if every read matched, false otherwise
+     * @throws IOException if a cold segment cannot be read
+     */
+    private static boolean readsMatch(final TieredCreatureStore store,
+                                      final List<Creature> expected,
+                                      final long now) throws IOException
+    {
+        boolean intact;
+
+        intact = true;
+
+        for (int pass = 0; pass < 2; pass++)
+        {
+            for (final Creature creature : expected)
+            {
+                intact &= matches(new SnapshotOf(store.get(creature.getName(), now)), creature);
+            }
+        }
+
+        return intact;
+    }
+
+    /**
+     * Checks that a stored creature has the same name, type, birthdate, health, and resource as expected.
+     *
+     * @param actual   the stored creature's state
+     * @param expected the creature it should match
+     * @return true if every field matches, false otherwise
+     */
+    private static boolean matches(final SnapshotOf actual,
+                                   final Creature expected)
+    {
+        return actual.name.equals(expected.getName()) &&
+                actual.type == CreatureType.of(expected) &&
+                actual.dateOfBirthMillis == expected.getDateOfBirth().getTime() &&
+                actual.health == expected.getHealth() &&
+                actual.resource == CreatureType.resourceOf(expected);
+    }
+
+    /**
+     * Deletes a directory and every file in it.
+     *
+     * @param directory the directory to delete
+     * @throws IOException if a file cannot be deleted
+     */
+    private static void deleteDirectory(final Path directory) throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(directory))
+        {
+            for (final Path path : (Iterable<Path>)paths.sorted(Comparator.reverseOrder())::iterator)
+            {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * The fields compared by matches(), read from either a CreatureSnapshot or a live Creature.
+     */
+    private static final class SnapshotOf
+    {
+        private final String name;
+        private final CreatureType type;
+        private final long dateOfBirthMillis;
+        private final int health;
+        private final int resource;
+
+        /**
+         * Constructs a SnapshotOf from a snapshot returned by get().
+         *
+         * @param snapshot the snapshot to read
+         */
+        private SnapshotOf(final CreatureSnapshot snapshot)
+        {
+            this.name = snapshot.getName();
+            this.type = snapshot.getType();
+            this.dateOfBirthMillis = snapshot.getDateOfBirth().getTime();
+            this.health = snapshot.getHealth();
+            this.resource = snapshot.getResource();
+        }
+
+        /**
+         * Constructs a SnapshotOf from a creature returned by promote().
+         *
+         * @param creature the creature to read
+         */
+        private SnapshotOf(final Creature creature)
+        {
+            this.name = creature.getName();
+            this.type = CreatureType.of(creature);
+            this.dateOfBirthMillis = creature.getDateOfBirth().getTime();
+            this.health = creature.getHealth();
+            this.resource = CreatureType.resourceOf(creature);
+        }
+    }
+}